@@ -5,7 +5,6 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import jakarta.persistence.Column;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.SerializationUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -27,6 +26,7 @@ import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.math.BigDecimal;
+import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -59,6 +59,13 @@ public abstract class AbstractExcelParser {
     // Соответствие значимой строки из шаблона номеру колонки в исходном файле Excel. Для оптимизации выборки.
     private Map<String, Integer> nameToColNumMap;
 
+    // Необязательный отбор строк по ключу bigint: повторы в файле и уже существующие в БД записи
+    // отсекаются до создания объекта данных. Экземпляр принадлежит одному парсеру и не потокобезопасен.
+    private KeyDeduplicator deduplicator;
+
+    // Допустимый объём ошибок преобразования ячеек, при превышении разбор файла прерывается
+    private ErrorBudget errorBudget = ErrorBudget.unlimited();
+
     // Содержит сопоставление типов данных из БД, указываемых в шаблоне, типам данных в Java
     private final Map<String, Class<?>> CLASSES = new HashMap<>(){{
         put("string", String.class);
@@ -71,11 +78,29 @@ public abstract class AbstractExcelParser {
         this.schemaPath = schemaPath;
     }
 
+    // Один экземпляр KeyDeduplicator нельзя передавать нескольким парсерам, работающим параллельно
+    public final void setKeyDeduplicator(KeyDeduplicator deduplicator) {
+        this.deduplicator = deduplicator;
+    }
+
+    public final void setErrorBudget(ErrorBudget errorBudget) {
+        if (errorBudget == null) { throw new NullPointerException("errorBudget is null"); }
+        this.errorBudget = errorBudget;
+    }
+
     public final Map<String, String> loadSchemas() {
         if (this.schemaPath == null) { throw new NullPointerException("schemaPath is null"); }
         final String POSTFIX = "_xls_schema.json";
 
         URL resource = getClass().getClassLoader().getResource(this.schemaPath);
+        // Вне classpath (например, при запуске из командной строки) ищем каталог шаблонов в файловой системе
+        if (resource == null && Files.isDirectory(Paths.get(this.schemaPath))) {
+            try {
+                resource = Paths.get(this.schemaPath).toUri().toURL();
+            } catch (MalformedURLException e) {
+                throw new RuntimeException(e);
+            }
+        }
         if (resource == null) { throw new NullPointerException("resource is null"); }
 
         try (Stream<Path> entries =  Files.walk(Paths.get(resource.toURI()))) {
@@ -110,8 +135,22 @@ public abstract class AbstractExcelParser {
         if (this.wb == null) { throw new NullPointerException("wb is null"); }
         if (this.sheet == null) { throw new NullPointerException("sheet is null"); }
         Row firstRow = this.sheet.getRow(0);
-        int firstCellNum;
-        if (firstRow == null || (firstCellNum = firstRow.getLastCellNum()) <= 0) { throw new NullPointerException("firstRow is null or empty"); }
+        if (firstRow == null || firstRow.getLastCellNum() <= 0) { throw new NullPointerException("firstRow is null or empty"); }
+
+        // Заголовки первой строки. Пустые ячейки и ячейки не строкового типа передаём как null.
+        List<String> header = new ArrayList<>();
+        for (int cellNum = 0; cellNum < firstRow.getLastCellNum(); cellNum++) {
+            Cell cell = firstRow.getCell(cellNum);
+            // В примерах тип ячейки был либо формула, формирующая строку, либо строка.
+            boolean isText = cell != null && (cell.getCellType() == CellType.FORMULA || cell.getCellType() == CellType.STRING);
+            header.add(isText ? cell.getStringCellValue() : null);
+        }
+        return detectObjectType(header);
+    }
+
+    // Определение типа объекта по заголовкам первой строки, общее для чтения через POI и конвейерного чтения.
+    private String detectObjectType(List<String> header) throws JsonProcessingException {
+        int firstCellNum = header.size();
         // Набор из объектов и списков, с названием полей из шаблона JSON, для этих объектов.
         Map<String, List<String>> namesMap = new HashMap<>();
         // Набор из объектов, содержащих map из поля, имени поля в БД и его тип
@@ -120,68 +159,37 @@ public abstract class AbstractExcelParser {
         Map<String, Map<String, String>> displayValuesMapByObject = new HashMap<>();
 
         // Разбираем схемы и сохраняем структурировано имена полей, имена и типы аттрибутов и текст для "отображаемых" полей
-        {
-            JsonNode node;
-            ObjectMapper mapper = new ObjectMapper();
-
-            for (String schemaObject : this.schemas.keySet()) {
-                List<String> names = new ArrayList<>();
-                Map<String, String[]> attrValues = new HashMap<>();
-                Map<String, String> displayValues = new HashMap<>();
-
-                node = mapper.readTree(this.schemas.get(schemaObject));
-                if (node.hasNonNull("fields")) {
-                    node.get("fields").elements().forEachRemaining(field -> {
-                        // Добавляем имя поля
-                        names.add(field.get("name").asText());
-
-                        field.get("type").elements().forEachRemaining(typeItemValue -> {
-                            // Добавляем имя и тип аттрибута для поля
-                            if (typeItemValue.asText().contains("attribute")) {
-                                attrValues.put(field.get("name").asText(),
-                                        new String[]{
-                                                field.get("attribute").get("name").asText(),
-                                                field.get("attribute").get("type").asText(),
-                                        });
-                            }
-                            // Добавляем отображаемое описание для поля
-                            if (typeItemValue.asText().contains("displayText")) {
-                                displayValues.put(field.get("name").asText(), field.get("displayName").asText());
-                            }
-                        });
-                    });
-
-                    // Отсекаем шаблоны, в которых количество параметров не совпадает с числом колонок в таблице.
-                    if (names.size() == firstCellNum) {
-                        namesMap.put(schemaObject, names);
-                        attributesMapByObject.put(schemaObject, attrValues);
-                        displayValuesMapByObject.put(schemaObject, displayValues);
-                    }
-                }
+        for (String schemaObject : this.schemas.keySet()) {
+            List<ExcelSchema.SchemaField> fields = ExcelSchema.readFields(this.schemas.get(schemaObject));
+            // Отсекаем шаблоны без полей и шаблоны, в которых количество параметров не совпадает с числом колонок в таблице.
+            if (fields.isEmpty() || fields.size() != firstCellNum) continue;
+
+            List<String> names = new ArrayList<>();
+            Map<String, String[]> attrValues = new HashMap<>();
+            Map<String, String> displayValues = new HashMap<>();
+            for (ExcelSchema.SchemaField field : fields) {
+                names.add(field.name());
+                if (field.isAttribute()) { attrValues.put(field.name(), new String[]{field.attributeName(), field.attributeType()}); }
+                if (field.isDisplayText()) { displayValues.put(field.name(), field.displayName()); }
             }
+            namesMap.put(schemaObject, names);
+            attributesMapByObject.put(schemaObject, attrValues);
+            displayValuesMapByObject.put(schemaObject, displayValues);
         }
         if (namesMap.isEmpty()) { throw new NullPointerException("Wrong or empty schema"); }
 
         // Просматриваем заголовки в первой строке файла и ищем совпадение с шаблонами.
-        for (int cellNum = 0; cellNum < firstRow.getLastCellNum(); cellNum++) {
-            Cell cell = firstRow.getCell(cellNum);
-            if (cell == null) {
-                // Увы, пустых ячеек в заголовке быть не должно -> не совпал ни один шаблон.
+        for (String cellValue : header) {
+            if (cellValue == null) {
+                // Увы, пустых ячеек в заголовке быть не должно, а формат ячеек должен быть Формула или Текст -> не совпал ни один шаблон.
                 namesMap.clear();
-//                log.error("AUDIT.Парсинг нарядов. Определение типа объекта по первой строке. Обнаружены пустые ячейки.");
-                return Strings.EMPTY;
-            }
-
-            // В примерах тип ячейки был либо формула, формирующая строку, либо строка.
-            CellType cellType = cell.getCellType();
-            if (cellType != CellType.FORMULA && cellType != CellType.STRING) {
-//                log.error("AUDIT.Парсинг нарядов. Определение типа объекта по первой строке. Формат ячеек должен быть Формула или Текст.");
+//                log.error("AUDIT.Парсинг нарядов. Определение типа объекта по первой строке. Обнаружены пустые ячейки или ячейки не текстового формата.");
                 return Strings.EMPTY;
             }
 
             // Если такого имени колонки в шаблоне нет - убираем этот шаблон из просматриваемых.
             for (Map.Entry<String, List<String>> mapEntry : namesMap.entrySet()) {
-                if (!mapEntry.getValue().contains(cell.getStringCellValue())) {
+                if (!mapEntry.getValue().contains(cellValue)) {
                     namesMap.remove(mapEntry.getKey());
                     attributesMapByObject.remove(mapEntry.getKey());
                     displayValuesMapByObject.remove(mapEntry.getKey());
@@ -199,56 +207,46 @@ public abstract class AbstractExcelParser {
         this.attributesMap = attributesMapByObject.get(objectType);
         this.displayValuesMap = displayValuesMapByObject.get(objectType);
         this.nameToColNumMap = new HashMap<>();
-        for (int cellNum = 0; cellNum < firstRow.getLastCellNum(); cellNum++) {
-            Cell cell = firstRow.getCell(cellNum);
-            if (this.attributesMap.containsKey(cell.getStringCellValue())) { this.nameToColNumMap.put(cell.getStringCellValue(), cellNum); }
-            if (this.displayValuesMap.containsKey(cell.getStringCellValue())) { this.nameToColNumMap.put(cell.getStringCellValue(), cellNum); }
+        for (int cellNum = 0; cellNum < header.size(); cellNum++) {
+            String cellValue = header.get(cellNum);
+            if (this.attributesMap.containsKey(cellValue)) { this.nameToColNumMap.put(cellValue, cellNum); }
+            if (this.displayValuesMap.containsKey(cellValue)) { this.nameToColNumMap.put(cellValue, cellNum); }
         }
 
         return objectType;
     }
 
-    public final boolean parse(Class<?> entityClass, String schema) {
+    public final ParseResult parse(Class<?> entityClass, String schema) {
         final int TYPE_JSON = 1;
-        final int FIELD_JAVA = 0;
         final int FIRST_ROW = 0;
 
         // Если нет схем, то и делать нечего
         if (this.schemas.isEmpty() || schema == null || !this.schemas.containsKey(schema)) {
 //            log.error("AUDIT.Парсинг нарядов: не загружены схемы для определения типа загружаемого наряда.");
-            return false;
+            return ParseResult.failed("Schema is not loaded: " + schema);
         }
 
-        // набор аттрибутов - методов-сеттеров, для объекта
-        Map<String, Method> attrMethod = new HashMap<>();
-
-        Field[] fields = entityClass.getDeclaredFields();
-        Method[] methods = entityClass.getDeclaredMethods();
+        ParseErrorCollector errorCollector = new ParseErrorCollector(this.errorBudget);
+        // Повторы ключа ищутся в пределах одного файла
+        if (this.deduplicator != null) { this.deduplicator.reset(); }
+        boolean aborted = false;
+        int entitySavesCounter = 0;
         try {
-            // Формируем набор методов "setters" для целевого класса, на основе полей с аннотацией @Column JPA
-            // В дальнейшем, при разборе файла Excel будем вызывать соответствующий setter, для установки значения в целевом классе
-            for (Map.Entry<String, String[]> attribute : this.attributesMap.entrySet()) {
-                // Получаем поле нашего класса объекта, у которого аннотация JPA (имя поля таблицы БД)
-                // совпадает с именем поля указанного в шаблоне.
-                Optional<Field> fieldToSet = Arrays.stream(fields)
-                        .filter(field -> field.getAnnotation(Column.class).name().equals(attribute.getValue()[FIELD_JAVA]))
-                        .findFirst();
-                // Если такое поле есть, получаем для него метод setter нашего базового класса и сохраняем его в hashmap
-                if (fieldToSet.isPresent()) {
-                    Optional<Method> methodToCall = Arrays.stream(methods)
-                            .filter(method -> method.getName().contains("set" + StringUtils.capitalize(fieldToSet.get().getName())))
-                            .findFirst();
-                    if (methodToCall.isPresent()) {
-                        attrMethod.put(attribute.getKey(), entityClass.getMethod(methodToCall.get().getName(), this.CLASSES.get(attribute.getValue()[TYPE_JSON])));
-                    }
-                }
-            }
-            int entitySavesCounter = 0;
+            // набор аттрибутов - методов-сеттеров, для объекта
+            Map<String, Method> attrMethod = resolveSetters(entityClass);
+            // Колонка с ключом для отбора строк, если отбор включён и ключ есть в шаблоне
+            int keyColNum = resolveKeyColNum();
             // Разбираем тело файла по шаблону и сохраняем в данные в целевой класс и потом в БД.
             for (int rowNum = 1; rowNum <= this.sheet.getLastRowNum(); rowNum++) {
                 Row row = this.sheet.getRow(rowNum);
                 if (row == null) break;
 
+                // Отбрасываем повторы и существующие записи ещё до создания объекта
+                KeyDeduplicator.Decision decision = KeyDeduplicator.Decision.INSERT;
+                Long key = keyColNum < 0 ? null : toKey(cellValue(row.getCell(keyColNum)));
+                if (key != null) { decision = this.deduplicator.check(key); }
+                if (decision == KeyDeduplicator.Decision.SKIP) continue;
+
                 // Создаём экземпляр объекта для последующего наполнения и записи в БД
                 Object entityObject = entityClass.getConstructor().newInstance();
 
@@ -261,17 +259,24 @@ public abstract class AbstractExcelParser {
                         if (attrMethod.containsKey(attrValue)) {
                             Object value = switch (this.attributesMap.get(attrValue)[TYPE_JSON]) {
                                 case "string" -> cell.getStringCellValue();
-                                case "bigint" -> (long) cell.getNumericCellValue();
-                                case "bigdecimal" -> BigDecimal.valueOf(cell.getNumericCellValue());
+                                case "bigint" -> toLong(cellValue(cell));
+                                case "bigdecimal" -> toBigDecimal(cellValue(cell));
                                 case "coords" -> parseCoordsString2JSONArray(cell.getStringCellValue());
                                 default -> throw new IllegalStateException("Unexpected value: " + attrValue);
                             };
                             // вызываем метод-сеттер объекта и передаём ему параметры.
                             attrMethod.get(attrValue).invoke(entityObject, value);
                         }
-                    } catch (Exception ignore) {
+                    } catch (Exception e) {
+                        // Пустая ячейка - отсутствующее значение, а не ошибка данных
+                        if (!isBlank(cell)) { errorCollector.add(rowNum, colNum, attrValue, this.attributesMap.get(attrValue)[TYPE_JSON], e); }
                     }
                 }
+                // Превышен допустимый объём ошибок - файл будет отклонён, дальше не разбираем и не сохраняем
+                if (errorCollector.endRow()) {
+                    aborted = true;
+                    break;
+                }
 
                 // Собираем дополнительные атрибуты в список для последующей передачи в абстрактный метод
                 Map<String, String> additionalAttributes = new HashMap<>();
@@ -288,18 +293,236 @@ public abstract class AbstractExcelParser {
                 // Отправляем на реализацию необязательные аттрибуты
                 setAdditionalFields(entityObject, additionalAttributes);
 
-                saveEntityClass(entityObject);
+                if (decision == KeyDeduplicator.Decision.UPSERT) {
+                    updateEntityClass(entityObject);
+                } else {
+                    saveEntityClass(entityObject);
+                }
                 entitySavesCounter++;
             }
         } catch (NullPointerException e) {
 //            log.error("AUDIT.Парсинг нарядов. Во время разбора файла произошла ошибка {}", e.getLocalizedMessage());
-            return false;
+            return ParseResult.failed(e.getLocalizedMessage());
         } catch (NoSuchMethodException | InvocationTargetException | InstantiationException | IllegalAccessException e) {
             throw new RuntimeException(e);
         }
-        return true;
+        // Доля ошибок в файле короче выборки ErrorBudget известна только после последней строки
+        return ParseResult.of(errorCollector, aborted, aborted || errorCollector.endFile(), schema, entitySavesCounter);
     }
-    
+
+    // Разбор файла конвейером PipelinedXlsxReader: распаковка, разбор XML и преобразование строк идут в разных потоках.
+    // Тип объекта определяется по первой строке, как в detectObjectType(). Модель книги POI не строится,
+    // поэтому отображаемые значения берутся из сохранённых в файле результатов, без форматов ячеек и пересчёта формул.
+    // Как и parse(), разбор останавливается на первой отсутствующей строке.
+    public final ParseResult parsePipelined(File file, Class<?> entityClass) {
+        final int TYPE_JSON = 1;
+
+        // Если нет схем, то и делать нечего
+        if (this.schemas.isEmpty() || file == null) {
+//            log.error("AUDIT.Парсинг нарядов: не загружены схемы для определения типа загружаемого наряда.");
+            return ParseResult.failed("Schemas are not loaded or file is null");
+        }
+
+        ParseErrorCollector errorCollector = new ParseErrorCollector(this.errorBudget);
+        // Повторы ключа ищутся в пределах одного файла
+        if (this.deduplicator != null) { this.deduplicator.reset(); }
+        // Сопоставление колонок заполняется по заголовку этого файла, а не остаётся от предыдущего
+        this.attributesMap = null;
+        this.displayValuesMap = null;
+        this.nameToColNumMap = null;
+        boolean[] aborted = {false};
+        int[] entitySavesCounter = {0};
+        String[] objectType = {null};
+        try {
+            Map<String, Method> attrMethod = new HashMap<>();
+            int[] keyColNum = {-1};
+            int[] lastRowNum = {0};
+            new PipelinedXlsxReader(file).read((rowNum, values) -> {
+                // Первая строка - заголовки, по ним определяем тип объекта и набор сеттеров
+                if (rowNum == 0) {
+                    List<String> header = new ArrayList<>();
+                    for (Object value : values) { header.add(value instanceof String ? (String) value : null); }
+                    objectType[0] = detectObjectType(header);
+                    if (objectType[0].isEmpty()) { throw new NullPointerException("Object type is not detected"); }
+                    attrMethod.putAll(resolveSetters(entityClass));
+                    keyColNum[0] = resolveKeyColNum();
+                    return true;
+                }
+                if (this.attributesMap == null) { throw new NullPointerException("Header row is missing"); }
+                // Пропуск в номерах строк - отсутствующая строка: останавливаемся, как parse() на первой row == null
+                if (rowNum != ++lastRowNum[0]) return false;
+
+                // Отбрасываем повторы и существующие записи ещё до создания объекта
+                KeyDeduplicator.Decision decision = KeyDeduplicator.Decision.INSERT;
+                Long key = keyColNum[0] < 0 ? null : toKey(getValue(values, keyColNum[0]));
+                if (key != null) { decision = this.deduplicator.check(key); }
+                if (decision == KeyDeduplicator.Decision.SKIP) return true;
+
+                // Создаём экземпляр объекта для последующего наполнения и записи в БД
+                Object entityObject = entityClass.getConstructor().newInstance();
+
+                // Заполняем обязательные атрибуты экземпляра объекта
+                for (String attrValue : this.attributesMap.keySet()) {
+                    Integer colNum = this.nameToColNumMap.get(attrValue);
+                    Object cellValue = getValue(values, colNum);
+                    try {
+                        if (attrMethod.containsKey(attrValue)) {
+                            Object value = switch (this.attributesMap.get(attrValue)[TYPE_JSON]) {
+                                case "string" -> (String) cellValue;
+                                case "bigint" -> toLong(cellValue);
+                                case "bigdecimal" -> toBigDecimal(cellValue);
+                                case "coords" -> parseCoordsString2JSONArray((String) cellValue);
+                                default -> throw new IllegalStateException("Unexpected value: " + attrValue);
+                            };
+                            if (value == null) { throw new NullPointerException(attrValue + " is null"); }
+                            // вызываем метод-сеттер объекта и передаём ему параметры.
+                            attrMethod.get(attrValue).invoke(entityObject, value);
+                        }
+                    } catch (Exception e) {
+                        // Пустая ячейка - отсутствующее значение, а не ошибка данных
+                        if (cellValue != null && !"".equals(cellValue)) {
+                            errorCollector.add(rowNum, colNum, attrValue, this.attributesMap.get(attrValue)[TYPE_JSON], e);
+                        }
+                    }
+                }
+                // Превышен допустимый объём ошибок - файл будет отклонён, дальше не разбираем и не сохраняем
+                if (errorCollector.endRow()) {
+                    aborted[0] = true;
+                    return false;
+                }
+
+                // Собираем дополнительные атрибуты в список для последующей передачи в абстрактный метод
+                Map<String, String> additionalAttributes = new HashMap<>();
+                for (String displayValue : this.displayValuesMap.keySet()) {
+                    additionalAttributes.put(displayValue, formatValue(getValue(values, this.nameToColNumMap.get(displayValue))));
+                }
+
+                // Устанавливаем атрибуты, необходимые для этого объекта по бизнес-логике, но отсутствующие в таблице
+                setRequiredFields(entityObject);
+                // Отправляем на реализацию необязательные аттрибуты
+                setAdditionalFields(entityObject, additionalAttributes);
+
+                if (decision == KeyDeduplicator.Decision.UPSERT) {
+                    updateEntityClass(entityObject);
+                } else {
+                    saveEntityClass(entityObject);
+                }
+                entitySavesCounter[0]++;
+                return true;
+            });
+        } catch (NullPointerException | IOException e) {
+            // Ошибки рефлексии - ошибка в описании класса объекта, а не в данных файла
+            if (e.getCause() instanceof ReflectiveOperationException) { throw new RuntimeException(e.getCause()); }
+//            log.error("AUDIT.Парсинг нарядов. Во время разбора файла произошла ошибка {}", e.getLocalizedMessage());
+            return ParseResult.failed(e.getLocalizedMessage());
+        }
+        return ParseResult.of(errorCollector, aborted[0], aborted[0] || errorCollector.endFile(), objectType[0], entitySavesCounter[0]);
+    }
+
+    // Формируем набор методов "setters" для целевого класса, на основе полей с аннотацией @Column JPA
+    // В дальнейшем, при разборе файла Excel будем вызывать соответствующий setter, для установки значения в целевом классе
+    private Map<String, Method> resolveSetters(Class<?> entityClass) throws NoSuchMethodException {
+        final int TYPE_JSON = 1;
+        final int FIELD_JAVA = 0;
+
+        Map<String, Method> attrMethod = new HashMap<>();
+        Map<String, Field> columnFields = ExcelSchema.columnFields(entityClass);
+        Method[] methods = entityClass.getDeclaredMethods();
+        for (Map.Entry<String, String[]> attribute : this.attributesMap.entrySet()) {
+            // Получаем поле нашего класса объекта, у которого аннотация JPA (имя поля таблицы БД)
+            // совпадает с именем поля указанного в шаблоне.
+            Optional<Field> fieldToSet = Optional.ofNullable(columnFields.get(attribute.getValue()[FIELD_JAVA]));
+            // Если такое поле есть, получаем для него метод setter нашего базового класса и сохраняем его в hashmap
+            if (fieldToSet.isPresent()) {
+                Optional<Method> methodToCall = Arrays.stream(methods)
+                        .filter(method -> method.getName().contains("set" + StringUtils.capitalize(fieldToSet.get().getName())))
+                        .findFirst();
+                if (methodToCall.isPresent()) {
+                    attrMethod.put(attribute.getKey(), entityClass.getMethod(methodToCall.get().getName(), this.CLASSES.get(attribute.getValue()[TYPE_JSON])));
+                }
+            }
+        }
+        return attrMethod;
+    }
+
+    // Номер колонки с ключом отбора строк или -1, если отбор выключен или ключа нет в шаблоне.
+    // Ключом может быть только аттрибут типа bigint.
+    private int resolveKeyColNum() {
+        final int TYPE_JSON = 1;
+        final int FIELD_JAVA = 0;
+
+        if (this.deduplicator == null) return -1;
+        for (Map.Entry<String, String[]> attribute : this.attributesMap.entrySet()) {
+            if (attribute.getValue()[FIELD_JAVA].equals(this.deduplicator.getKeyAttribute())
+                    && "bigint".equals(attribute.getValue()[TYPE_JSON])
+                    && this.nameToColNumMap.containsKey(attribute.getKey())) {
+                return this.nameToColNumMap.get(attribute.getKey());
+            }
+        }
+        return -1;
+    }
+
+    // Пустая или отсутствующая ячейка, в том числе формула с пустым строковым результатом
+    private static boolean isBlank(Cell cell) {
+        if (cell == null) return true;
+        CellType cellType = resultType(cell);
+        return cellType == CellType.BLANK || (cellType == CellType.STRING && cell.getStringCellValue().isEmpty());
+    }
+
+    // Тип значения ячейки; для формулы - тип сохранённого результата, как его видит PipelinedXlsxReader
+    private static CellType resultType(Cell cell) {
+        return cell.getCellType() == CellType.FORMULA ? cell.getCachedFormulaResultType() : cell.getCellType();
+    }
+
+    // Значение ячейки в тех же типах, что отдаёт PipelinedXlsxReader: Double, String, Boolean или null.
+    // Для формулы - сохранённый результат.
+    private static Object cellValue(Cell cell) {
+        if (cell == null) return null;
+        return switch (resultType(cell)) {
+            case NUMERIC -> cell.getNumericCellValue();
+            case STRING -> cell.getStringCellValue();
+            case BOOLEAN -> cell.getBooleanCellValue();
+            default -> null;
+        };
+    }
+
+    // Значение bigint: число или текст с числом. В шаблонах нарядов ключи вроде eo_sap_code
+    // хранятся формулой с текстовым результатом, например "20000008133428".
+    private static Long toLong(Object value) {
+        if (value instanceof Double number) return number.longValue();
+        if (value instanceof String text) return Long.parseLong(text.trim());
+        throw new IllegalArgumentException("Not a bigint value: " + value);
+    }
+
+    // Ключ для отбора строк, прочитанный так же, как значение bigint, или null, если в ячейке нет числа.
+    // Строка без ключа не отбрасывается, ошибка значения учитывается при заполнении аттрибутов.
+    private static Long toKey(Object value) {
+        try {
+            return toLong(value);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    // Значение bigdecimal: число или текст с числом
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value instanceof Double number) return BigDecimal.valueOf(number);
+        if (value instanceof String text) return new BigDecimal(text.trim());
+        throw new IllegalArgumentException("Not a bigdecimal value: " + value);
+    }
+
+    private static Object getValue(Object[] values, Integer colNum) {
+        return colNum != null && colNum < values.length ? values[colNum] : null;
+    }
+
+    // Текстовое представление значения ячейки, близкое к DataFormatter для формата "General"
+    private static String formatValue(Object value) {
+        if (value == null) return Strings.EMPTY;
+        if (value instanceof Double number) return BigDecimal.valueOf(number).stripTrailingZeros().toPlainString();
+        if (value instanceof Boolean bool) return bool ? "TRUE" : "FALSE";
+        return value.toString();
+    }
+
     // Формируем JSON массив с координатами
     protected JsonNode parseCoordsString2JSONArray(String coords) {
         ObjectMapper mapper = new ObjectMapper();
@@ -330,4 +553,10 @@ public abstract class AbstractExcelParser {
     public abstract void setRequiredFields(final Object entityObject);
     public abstract void setAdditionalFields(final Object entityObject, final Map<String, String> additionalFields);
     public abstract void saveEntityClass(final Object entityObject);
+
+    // Обновление записи, ключ которой уже есть в БД (KeyDeduplicator.ExistingKeyAction.UPSERT).
+    // По умолчанию передаётся в saveEntityClass, реализация может выполнить upsert.
+    public void updateEntityClass(final Object entityObject) {
+        saveEntityClass(entityObject);
+    }
 }
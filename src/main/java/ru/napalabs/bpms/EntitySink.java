@@ -0,0 +1,24 @@
+package ru.napalabs.bpms;
+
+// Приёмник разобранных объектов данных для пакетной загрузки из командной строки (см. Main)
+public interface EntitySink extends AutoCloseable {
+    String DISCARD = "discard";
+    String STDOUT = "stdout";
+    String JDBC_PREFIX = "jdbc:";
+
+    void accept(final Object entityObject);
+
+    @Override
+    default void close() {
+    }
+
+    // "discard" - объекты отбрасываются, "stdout" - печатаются, "jdbc:..." - записываются в таблицу БД,
+    // которая при createTable создаётся, если её нет
+    static EntitySink of(String sink, String table, boolean createTable) {
+        if (sink == null) { throw new NullPointerException("sink is null"); }
+        if (sink.equals(DISCARD)) return entityObject -> { };
+        if (sink.equals(STDOUT)) return System.out::println;
+        if (sink.startsWith(JDBC_PREFIX)) return new JdbcEntitySink(sink, table, createTable);
+        throw new IllegalArgumentException("Unknown sink: " + sink);
+    }
+}
@@ -0,0 +1,53 @@
+package ru.napalabs.bpms;
+
+// Допустимое количество ошибок разбора. При превышении разбор файла прерывается,
+// чтобы не тратить время и записи в БД на файл, который всё равно будет отклонён.
+public final class ErrorBudget {
+    private static final ErrorBudget UNLIMITED = new ErrorBudget(-1, -1, 0);
+
+    // Максимальное количество ошибочных ячеек во всём файле, -1 - без ограничения
+    private final int maxErrors;
+    // Максимальная доля строк с ошибками среди первых sampleRows строк (или всех строк файла, если их меньше),
+    // -1 - без ограничения
+    private final double maxErrorRowsRatio;
+    private final int sampleRows;
+
+    private ErrorBudget(int maxErrors, double maxErrorRowsRatio, int sampleRows) {
+        this.maxErrors = maxErrors;
+        this.maxErrorRowsRatio = maxErrorRowsRatio;
+        this.sampleRows = sampleRows;
+    }
+
+    public static ErrorBudget unlimited() {
+        return UNLIMITED;
+    }
+
+    public static ErrorBudget maxErrors(int maxErrors) {
+        if (maxErrors < 0) { throw new IllegalArgumentException("maxErrors is negative"); }
+        return new ErrorBudget(maxErrors, -1, 0);
+    }
+
+    // Например, maxErrorRowsRatio(0.1, 1000): прервать, если в первых 1000 строках ошибки более чем в 100 строках.
+    // Разбор прерывается, как только превышение становится неизбежным, не дожидаясь конца выборки.
+    // Если в файле меньше sampleRows строк, доля считается от всех его строк и проверяется по окончании файла (isExceededAtEnd).
+    public static ErrorBudget maxErrorRowsRatio(double maxErrorRowsRatio, int sampleRows) {
+        if (maxErrorRowsRatio < 0 || maxErrorRowsRatio > 1) { throw new IllegalArgumentException("maxErrorRowsRatio must be between 0 and 1"); }
+        if (sampleRows <= 0) { throw new IllegalArgumentException("sampleRows must be positive"); }
+        return new ErrorBudget(-1, maxErrorRowsRatio, sampleRows);
+    }
+
+    // Проверка после очередной строки: rowsCount - прочитано строк, errorRowsCount - из них с ошибками
+    public boolean isExceeded(int errorsCount, int rowsCount, int errorRowsCount) {
+        if (this.maxErrors >= 0 && errorsCount > this.maxErrors) return true;
+        return this.maxErrorRowsRatio >= 0 && rowsCount <= this.sampleRows
+                && errorRowsCount > this.maxErrorRowsRatio * this.sampleRows;
+    }
+
+    // Проверка после последней строки файла: доля строк с ошибками от min(rowsCount, sampleRows).
+    // Для файла не короче выборки доля уже проверена в isExceeded на строке sampleRows, остаётся случай короткого файла.
+    public boolean isExceededAtEnd(int errorsCount, int rowsCount, int errorRowsCount) {
+        if (isExceeded(errorsCount, rowsCount, errorRowsCount)) return true;
+        return this.maxErrorRowsRatio >= 0 && rowsCount > 0 && rowsCount < this.sampleRows
+                && errorRowsCount > this.maxErrorRowsRatio * rowsCount;
+    }
+}
@@ -0,0 +1,72 @@
+package ru.napalabs.bpms;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.Column;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Разбор шаблона *_xls_schema.json и сопоставление аттрибутов шаблона полям объекта данных через аннотацию @Column JPA.
+// Общий для загрузки (AbstractExcelParser), выгрузки (SchemaExcelExporter) и записи в БД (JdbcEntitySink).
+final class ExcelSchema {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // Поле шаблона в порядке колонок.
+    // {"name":"pnt_id", "type":["attribute"], "attribute" : {"name" : "eqm_id", "type": "bigint"}} -> ("pnt_id", "eqm_id", "bigint", null)
+    // {"name":"pnt_type_name", "type":["displayText"], "displayName" :  "Тип"} -> ("pnt_type_name", null, null, "Тип")
+    record SchemaField(String name, String attributeName, String attributeType, String displayName) {
+        boolean isAttribute() {
+            return this.attributeName != null;
+        }
+
+        boolean isDisplayText() {
+            return this.displayName != null;
+        }
+    }
+
+    private ExcelSchema() {
+    }
+
+    // Поля шаблона по порядку. Если в шаблоне нет "fields" - пустой список.
+    static List<SchemaField> readFields(String schemaJson) throws JsonProcessingException {
+        List<SchemaField> fields = new ArrayList<>();
+        JsonNode node = MAPPER.readTree(schemaJson);
+        if (!node.hasNonNull("fields")) return fields;
+
+        node.get("fields").elements().forEachRemaining(field -> {
+            String attributeName = null;
+            String attributeType = null;
+            String displayName = null;
+            Iterator<JsonNode> types = field.get("type").elements();
+            while (types.hasNext()) {
+                JsonNode typeItemValue = types.next();
+                if (typeItemValue.asText().contains("attribute")) {
+                    attributeName = field.get("attribute").get("name").asText();
+                    attributeType = field.get("attribute").get("type").asText();
+                }
+                if (typeItemValue.asText().contains("displayText")) {
+                    displayName = field.get("displayName").asText();
+                }
+            }
+            fields.add(new SchemaField(field.get("name").asText(), attributeName, attributeType, displayName));
+        });
+        return fields;
+    }
+
+    // Поля класса объекта данных с аннотацией @Column по имени поля таблицы БД, в порядке объявления.
+    // Поля без аннотации пропускаются.
+    static Map<String, Field> columnFields(Class<?> entityClass) {
+        Map<String, Field> fields = new LinkedHashMap<>();
+        for (Field field : entityClass.getDeclaredFields()) {
+            Column column = field.getAnnotation(Column.class);
+            if (column != null) { fields.put(column.name(), field); }
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,152 @@
+package ru.napalabs.bpms;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.persistence.Column;
+import org.apache.commons.lang3.StringUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+// Запись объектов данных в таблицу БД пакетами по BATCH_SIZE строк.
+// Колонки - поля с аннотацией @Column JPA. Таблица должна существовать заранее, либо при createTable
+// создаётся перед первой вставкой (CREATE TABLE IF NOT EXISTS, типы колонок - по типам полей, см. SQL_TYPES).
+// Если имя таблицы не задано, оно получается из имени класса: AuditOrderDemo -> audit_order_demo.
+// Одно соединение на все файлы, поэтому запись синхронизирована.
+public class JdbcEntitySink implements EntitySink {
+    private static final int BATCH_SIZE = 1000;
+    private static final String DEFAULT_SQL_TYPE = "VARCHAR";
+    // DECIMAL без точности в H2 получает масштаб 0 и округляет координаты до целых
+    private static final int DEFAULT_DECIMAL_PRECISION = 38;
+    private static final int DEFAULT_DECIMAL_SCALE = 10;
+    // Сопоставление типов полей объекта данных типам колонок для создаваемой таблицы.
+    // JsonNode записывается строкой (см. toJdbcValue), поэтому и остальные типы по умолчанию - VARCHAR.
+    private static final Map<Class<?>, String> SQL_TYPES = Map.of(
+            Long.class, "BIGINT",
+            Integer.class, "INTEGER",
+            String.class, "VARCHAR",
+            LocalDate.class, "DATE",
+            Instant.class, "TIMESTAMP"
+    );
+
+    private final Connection connection;
+    private final String table;
+    private final boolean createTable;
+    private PreparedStatement statement;
+    private final List<Method> getters = new ArrayList<>();
+    private int batchSize;
+
+    public JdbcEntitySink(String url, String table) {
+        this(url, table, false);
+    }
+
+    public JdbcEntitySink(String url, String table, boolean createTable) {
+        try {
+            this.connection = DriverManager.getConnection(url);
+            this.connection.setAutoCommit(false);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        this.table = table;
+        this.createTable = createTable;
+    }
+
+    @Override
+    public synchronized void accept(Object entityObject) {
+        try {
+            if (this.statement == null) { prepare(entityObject.getClass()); }
+            for (int i = 0; i < this.getters.size(); i++) {
+                this.statement.setObject(i + 1, toJdbcValue(this.getters.get(i).invoke(entityObject)));
+            }
+            this.statement.addBatch();
+            if (++this.batchSize >= BATCH_SIZE) { flush(); }
+        } catch (SQLException | IllegalAccessException | InvocationTargetException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            if (this.statement != null) {
+                flush();
+                this.statement.close();
+            }
+            this.connection.close();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void prepare(Class<?> entityClass) throws SQLException {
+        StringJoiner columns = new StringJoiner(", ");
+        StringJoiner columnDefinitions = new StringJoiner(", ");
+        StringJoiner placeholders = new StringJoiner(", ");
+        for (Map.Entry<String, Field> column : ExcelSchema.columnFields(entityClass).entrySet()) {
+            try {
+                this.getters.add(entityClass.getMethod("get" + StringUtils.capitalize(column.getValue().getName())));
+            } catch (NoSuchMethodException e) {
+                continue;
+            }
+            columns.add(column.getKey());
+            columnDefinitions.add(column.getKey() + " " + sqlType(column.getValue()));
+            placeholders.add("?");
+        }
+
+        String tableName = this.table != null ? this.table : toSnakeCase(entityClass.getSimpleName());
+        if (this.createTable) {
+            try (Statement ddl = this.connection.createStatement()) {
+                ddl.execute("CREATE TABLE IF NOT EXISTS " + tableName + " (" + columnDefinitions + ")");
+            }
+            this.connection.commit();
+        }
+        this.statement = this.connection.prepareStatement("INSERT INTO " + tableName + " (" + columns + ") VALUES (" + placeholders + ")");
+    }
+
+    // Тип колонки для создаваемой таблицы. Для BigDecimal точность и масштаб берутся из @Column, если заданы.
+    private static String sqlType(Field field) {
+        if (field.getType() != BigDecimal.class) return SQL_TYPES.getOrDefault(field.getType(), DEFAULT_SQL_TYPE);
+
+        Column column = field.getAnnotation(Column.class);
+        return column.precision() > 0
+                ? "DECIMAL(" + column.precision() + ", " + column.scale() + ")"
+                : "DECIMAL(" + DEFAULT_DECIMAL_PRECISION + ", " + DEFAULT_DECIMAL_SCALE + ")";
+    }
+
+    private void flush() throws SQLException {
+        if (this.batchSize == 0) return;
+        this.statement.executeBatch();
+        this.connection.commit();
+        this.batchSize = 0;
+    }
+
+    private static Object toJdbcValue(Object value) {
+        if (value instanceof JsonNode json) return json.toString();
+        if (value instanceof Instant instant) return Timestamp.from(instant);
+        if (value instanceof LocalDate date) return java.sql.Date.valueOf(date);
+        return value;
+    }
+
+    static String toSnakeCase(String name) {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < name.length(); i++) {
+            char ch = name.charAt(i);
+            if (Character.isUpperCase(ch) && i > 0) { result.append('_'); }
+            result.append(Character.toLowerCase(ch));
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,73 @@
+package ru.napalabs.bpms;
+
+import java.util.Arrays;
+
+// Отбор строк по натуральному ключу типа bigint (например eqm_id или eo_sap_code) до создания объекта данных.
+// Повторы ключа внутри файла отбрасываются, ключи, уже существующие в БД, пропускаются или отправляются на обновление.
+// Экземпляр хранит состояние разбора (встреченные ключи, счётчики), поэтому используется одним парсером
+// и не потокобезопасен. Для параллельной загрузки файлов нужен свой экземпляр на каждый парсер;
+// массив ключей из БД при этом можно передавать один и тот же, он копируется.
+public class KeyDeduplicator {
+    // Что делать со строкой, ключ которой уже есть в БД
+    public enum ExistingKeyAction { SKIP, UPSERT }
+
+    // Решение по строке
+    public enum Decision { INSERT, UPSERT, SKIP }
+
+    // Имя аттрибута (поля таблицы БД) из шаблона, например "eqm_id"
+    private final String keyAttribute;
+    private final ExistingKeyAction existingKeyAction;
+    // Отсортированные ключи, уже существующие в БД. Поиск двоичный, без ложных срабатываний.
+    private final long[] existingKeys;
+    // Ключи, уже встреченные в текущем файле
+    private final LongHashSet seenKeys;
+
+    private int duplicatesCount;
+    private int existingCount;
+
+    public KeyDeduplicator(String keyAttribute) {
+        this(keyAttribute, new long[0], ExistingKeyAction.SKIP);
+    }
+
+    public KeyDeduplicator(String keyAttribute, long[] existingKeys, ExistingKeyAction existingKeyAction) {
+        if (keyAttribute == null) { throw new NullPointerException("keyAttribute is null"); }
+        if (existingKeys == null) { throw new NullPointerException("existingKeys is null"); }
+        if (existingKeyAction == null) { throw new NullPointerException("existingKeyAction is null"); }
+        this.keyAttribute = keyAttribute;
+        this.existingKeyAction = existingKeyAction;
+        this.existingKeys = existingKeys.clone();
+        Arrays.sort(this.existingKeys);
+        this.seenKeys = new LongHashSet();
+    }
+
+    public final String getKeyAttribute() {
+        return this.keyAttribute;
+    }
+
+    public final Decision check(long key) {
+        if (!this.seenKeys.add(key)) {
+            this.duplicatesCount++;
+            return Decision.SKIP;
+        }
+        if (Arrays.binarySearch(this.existingKeys, key) >= 0) {
+            this.existingCount++;
+            return this.existingKeyAction == ExistingKeyAction.UPSERT ? Decision.UPSERT : Decision.SKIP;
+        }
+        return Decision.INSERT;
+    }
+
+    // Сброс перед разбором очередного файла. Ключи из БД сохраняются.
+    public final void reset() {
+        this.seenKeys.clear();
+        this.duplicatesCount = 0;
+        this.existingCount = 0;
+    }
+
+    public final int getDuplicatesCount() {
+        return this.duplicatesCount;
+    }
+
+    public final int getExistingCount() {
+        return this.existingCount;
+    }
+}
@@ -0,0 +1,97 @@
+package ru.napalabs.bpms;
+
+import java.util.Arrays;
+
+// Множество значений long на открытой адресации с линейным пробированием, без упаковки в Long.
+// Значение 0 используется как признак пустой ячейки таблицы, поэтому сам ключ 0 хранится отдельным флагом.
+// Не потокобезопасно.
+public class LongHashSet {
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] table;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+    private boolean containsZero;
+
+    public LongHashSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongHashSet(int expectedSize) {
+        if (expectedSize < 0) { throw new IllegalArgumentException("expectedSize is negative"); }
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    // Возвращает true, если значения ещё не было в множестве
+    public boolean add(long key) {
+        if (key == 0) {
+            if (this.containsZero) return false;
+            this.containsZero = true;
+            this.size++;
+            return true;
+        }
+
+        int index = indexOf(key);
+        while (this.table[index] != 0) {
+            if (this.table[index] == key) return false;
+            index = (index + 1) & this.mask;
+        }
+        this.table[index] = key;
+        if (++this.size >= this.resizeThreshold) { rehash(this.table.length << 1); }
+        return true;
+    }
+
+    public boolean contains(long key) {
+        if (key == 0) return this.containsZero;
+
+        int index = indexOf(key);
+        while (this.table[index] != 0) {
+            if (this.table[index] == key) return true;
+            index = (index + 1) & this.mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public void clear() {
+        Arrays.fill(this.table, 0);
+        this.size = 0;
+        this.containsZero = false;
+    }
+
+    private int indexOf(long key) {
+        // Перемешивание битов (финализатор MurmurHash3), чтобы последовательные идентификаторы не шли подряд
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key & this.mask;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldTable = this.table;
+        allocate(capacity);
+        for (long key : oldTable) {
+            if (key == 0) continue;
+            int index = indexOf(key);
+            while (this.table[index] != 0) { index = (index + 1) & this.mask; }
+            this.table[index] = key;
+        }
+    }
+
+    private void allocate(int capacity) {
+        this.table = new long[capacity];
+        this.mask = capacity - 1;
+        this.resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        long capacity = Math.max(16, (long) Math.ceil(expectedSize / LOAD_FACTOR) + 1);
+        if (capacity > (1 << 30)) { throw new IllegalArgumentException("expectedSize is too large"); }
+        return Integer.highestOneBit((int) capacity - 1) << 1;
+    }
+}
@@ -1,7 +1,275 @@
 package ru.napalabs.bpms;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import ru.napalabs.bpms.models.AuditOrderDemo;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Пакетная загрузка файлов Excel из командной строки с замером производительности.
+// Каждый файл разбирается отдельным экземпляром AuditExcelParser, файлы обрабатываются параллельно.
+// Отчёт по файлам и итог печатаются в stderr, сводка в JSON - в файл --summary или в stdout.
+// С --sink stdout в stdout печатаются объекты данных, поэтому файл --summary обязателен.
 public class Main {
+    private static final String USAGE = """
+            Usage: Main --schemas <path> --input <directory|glob> [options]
+              --schemas <path>       каталог шаблонов *_xls_schema.json (classpath или файловая система)
+              --input <dir|glob>     каталог с *.xlsx, отдельный файл или маска, например data/*_new.xlsx
+              --parallelism <n>      количество файлов, разбираемых одновременно (по умолчанию - число ядер)
+              --sink <sink>          discard (по умолчанию), stdout или JDBC URL, например jdbc:h2:./ingest
+              --table <name>         таблица для JDBC (по умолчанию - из имени класса объекта)
+              --create-table         создать таблицу для JDBC, если её нет (типы колонок - по полям класса объекта)
+              --pipelined            разбирать конвейером PipelinedXlsxReader вместо модели POI
+              --summary <file>       файл для сводки в JSON (по умолчанию - stdout, при --sink stdout обязателен)
+              --max-errors <n>       прервать разбор файла после n ошибочных ячеек (по умолчанию - без ограничения)
+            """;
+    private static final double NANOS_IN_SECOND = 1_000_000_000d;
+    private static final long NANOS_IN_MILLI = 1_000_000L;
+    private static final long BYTES_IN_MB = 1024L * 1024L;
+
+    // Результат разбора одного файла. Время этапов в наносекундах, в порядке выполнения.
+    record FileResult(Path file, String objectType, boolean success, long rows, long nanos,
+                      Map<String, Long> phases, int parseErrors, String error) {
+        double rowsPerSecond() {
+            return this.nanos > 0 ? this.rows * NANOS_IN_SECOND / this.nanos : 0;
+        }
+    }
+
     public static void main(String[] args) {
-        System.out.println("Hello world!");
+        Map<String, String> options;
+        List<Path> files;
+        int parallelism;
+        ErrorBudget errorBudget;
+        try {
+            options = parseArgs(args);
+            parallelism = Integer.parseInt(options.getOrDefault("--parallelism", String.valueOf(Runtime.getRuntime().availableProcessors())));
+            if (parallelism <= 0) { throw new IllegalArgumentException("--parallelism must be positive"); }
+            files = listWorkbooks(options.get("--input"));
+            errorBudget = options.containsKey("--max-errors")
+                    ? ErrorBudget.maxErrors(Integer.parseInt(options.get("--max-errors")))
+                    : ErrorBudget.unlimited();
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println(e.getMessage());
+            System.err.print(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        String schemaPath = options.get("--schemas");
+        String sinkName = options.getOrDefault("--sink", EntitySink.DISCARD);
+        boolean pipelined = options.containsKey("--pipelined");
+        boolean createTable = options.containsKey("--create-table");
+
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        List<FileResult> results = new ArrayList<>();
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try (EntitySink sink = EntitySink.of(sinkName, options.get("--table"), createTable)) {
+            List<Future<FileResult>> futures = new ArrayList<>();
+            for (Path file : files) {
+                futures.add(executor.submit(() -> ingest(file, schemaPath, sink, pipelined, errorBudget)));
+            }
+            for (Future<FileResult> future : futures) {
+                FileResult result = future.get();
+                results.add(result);
+                printFileResult(result);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        long wallNanos = System.nanoTime() - start;
+
+        // Сумма пиков по пулам кучи - оценка сверху, пики разных пулов могут не совпадать по времени
+        long peakHeap = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        long rows = results.stream().mapToLong(FileResult::rows).sum();
+        long failed = results.stream().filter(result -> !result.success()).count();
+        System.err.printf("Total: files=%d, failed=%d, rows=%d, %.3f s, %.0f rows/s, peak heap=%d MB%n",
+                results.size(), failed, rows, wallNanos / NANOS_IN_SECOND,
+                wallNanos > 0 ? rows * NANOS_IN_SECOND / wallNanos : 0, peakHeap / BYTES_IN_MB);
+
+        try {
+            String summary = toJson(results, wallNanos, peakHeap, parallelism, sinkName, pipelined);
+            if (options.containsKey("--summary")) {
+                Files.writeString(Paths.get(options.get("--summary")), summary, StandardCharsets.UTF_8);
+            } else {
+                System.out.println(summary);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        System.exit(failed == 0 ? 0 : 1);
+    }
+
+    private static FileResult ingest(Path file, String schemaPath, EntitySink sink, boolean pipelined, ErrorBudget errorBudget) {
+        long[] rows = {0};
+        AbstractExcelParser parser = new AuditExcelParser(schemaPath) {
+            @Override
+            public void saveEntityClass(Object entityObject) {
+                sink.accept(entityObject);
+                rows[0]++;
+            }
+        };
+        parser.setErrorBudget(errorBudget);
+
+        Map<String, Long> phases = new LinkedHashMap<>();
+        String objectType = null;
+        ParseResult result = null;
+        String error = null;
+        long start = System.nanoTime();
+        long phaseStart = start;
+        try {
+            parser.loadSchemas();
+            phaseStart = phase(phases, "loadSchemas", phaseStart);
+            if (pipelined) {
+                result = parser.parsePipelined(file.toFile(), AuditOrderDemo.class);
+                objectType = result.objectType();
+                phase(phases, "parse", phaseStart);
+            } else if (parser.getWorkbook(file.toFile())) {
+                phaseStart = phase(phases, "open", phaseStart);
+                objectType = parser.detectObjectType();
+                phaseStart = phase(phases, "detect", phaseStart);
+                result = objectType.isEmpty() ? ParseResult.failed("Object type is not detected") : parser.parse(AuditOrderDemo.class, objectType);
+                phase(phases, "parse", phaseStart);
+            } else {
+                result = ParseResult.failed("Workbook is not opened");
+            }
+            error = result.message();
+        } catch (Exception e) {
+            error = e.toString();
+        }
+        boolean success = result != null && result.success();
+        int parseErrors = result != null ? result.errorsCount() : 0;
+        return new FileResult(file, objectType, success, rows[0], System.nanoTime() - start, phases, parseErrors, error);
+    }
+
+    // Сохраняет длительность этапа и возвращает время начала следующего
+    private static long phase(Map<String, Long> phases, String name, long phaseStart) {
+        long now = System.nanoTime();
+        phases.put(name, now - phaseStart);
+        return now;
+    }
+
+    private static void printFileResult(FileResult result) {
+        StringBuilder phases = new StringBuilder();
+        result.phases().forEach((name, nanos) -> phases.append(' ').append(name).append('=').append(nanos / NANOS_IN_MILLI).append("ms"));
+        System.err.printf("%s: %s, type=%s, rows=%d, errors=%d, %.3f s, %.0f rows/s,%s%s%n",
+                result.file().getFileName(), result.success() ? "OK" : "FAILED", result.objectType(),
+                result.rows(), result.parseErrors(), result.nanos() / NANOS_IN_SECOND, result.rowsPerSecond(), phases,
+                result.error() != null ? ", error=" + result.error() : "");
+    }
+
+    static String toJson(List<FileResult> results, long wallNanos, long peakHeap,
+                         int parallelism, String sinkName, boolean pipelined) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode summary = mapper.createObjectNode();
+        summary.put("parallelism", parallelism);
+        // Полный JDBC URL может содержать пароль, поэтому сохраняем только вид приёмника
+        summary.put("sink", sinkName.startsWith(EntitySink.JDBC_PREFIX) ? "jdbc" : sinkName);
+        summary.put("pipelined", pipelined);
+
+        long rows = 0;
+        int failed = 0;
+        ArrayNode filesNode = summary.putArray("files");
+        for (FileResult result : results) {
+            ObjectNode fileNode = filesNode.addObject();
+            fileNode.put("file", result.file().toString());
+            fileNode.put("objectType", result.objectType());
+            fileNode.put("success", result.success());
+            fileNode.put("rows", result.rows());
+            fileNode.put("parseErrors", result.parseErrors());
+            fileNode.put("millis", result.nanos() / NANOS_IN_MILLI);
+            fileNode.put("rowsPerSecond", result.rowsPerSecond());
+            ObjectNode phasesNode = fileNode.putObject("phasesMillis");
+            result.phases().forEach((name, nanos) -> phasesNode.put(name, nanos / NANOS_IN_MILLI));
+            fileNode.put("error", result.error());
+            rows += result.rows();
+            if (!result.success()) failed++;
+        }
+
+        ObjectNode totalNode = summary.putObject("total");
+        totalNode.put("files", results.size());
+        totalNode.put("failed", failed);
+        totalNode.put("rows", rows);
+        totalNode.put("millis", wallNanos / NANOS_IN_MILLI);
+        totalNode.put("rowsPerSecond", wallNanos > 0 ? rows * NANOS_IN_SECOND / wallNanos : 0);
+        totalNode.put("peakHeapBytes", peakHeap);
+        return mapper.writeValueAsString(summary);
+    }
+
+    // Разбор и проверка аргументов командной строки. Флаги без значения сохраняются со значением "true".
+    static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--pipelined", "--create-table" -> options.put(args[i], "true");
+                case "--schemas", "--input", "--parallelism", "--sink", "--table", "--summary", "--max-errors" -> {
+                    if (i + 1 >= args.length) { throw new IllegalArgumentException("Missing value for " + args[i]); }
+                    options.put(args[i], args[++i]);
+                }
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        if (!options.containsKey("--schemas") || !options.containsKey("--input")) {
+            throw new IllegalArgumentException("--schemas and --input are required");
+        }
+        // Иначе сводка смешается с объектами данных в stdout
+        if (EntitySink.STDOUT.equals(options.get("--sink")) && !options.containsKey("--summary")) {
+            throw new IllegalArgumentException("--summary is required with --sink stdout");
+        }
+        return options;
+    }
+
+    // Каталог -> все *.xlsx в нём, файл -> он сам, иначе последний элемент пути считается маской glob
+    static List<Path> listWorkbooks(String input) throws IOException {
+        Path directory;
+        String glob;
+        if (!input.contains("*") && !input.contains("?") && Files.isRegularFile(Paths.get(input))) {
+            return List.of(Paths.get(input));
+        } else if (!input.contains("*") && !input.contains("?") && Files.isDirectory(Paths.get(input))) {
+            directory = Paths.get(input);
+            glob = "*.xlsx";
+        } else {
+            int separator = Math.max(input.lastIndexOf('/'), input.lastIndexOf(File.separatorChar));
+            directory = separator < 0 ? Paths.get(".") : Paths.get(input.substring(0, separator + 1));
+            glob = input.substring(separator + 1);
+        }
+
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+            stream.forEach(file -> { if (Files.isRegularFile(file)) files.add(file); });
+        }
+        if (files.isEmpty()) { throw new IllegalArgumentException("No workbooks found: " + input); }
+        files.sort(null);
+        return files;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,10 @@
+package ru.napalabs.bpms;
+
+// Ошибка преобразования значения ячейки к типу аттрибута из шаблона.
+// rowNum и colNum начинаются с 0, как в POI; column - имя поля шаблона, schemaType - тип аттрибута ("bigint", "string", ...).
+public record ParseError(int rowNum, int colNum, String column, String schemaType, Exception cause) {
+    @Override
+    public String toString() {
+        return "row " + this.rowNum + ", column " + this.column + " (" + this.colNum + "), type " + this.schemaType + ": " + this.cause;
+    }
+}
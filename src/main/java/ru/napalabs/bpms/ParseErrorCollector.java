@@ -0,0 +1,64 @@
+package ru.napalabs.bpms;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Сбор ошибок разбора одного файла. Подробно хранятся только первые capacity ошибок, остальные лишь считаются.
+public class ParseErrorCollector {
+    public static final int DEFAULT_CAPACITY = 100;
+
+    private final ErrorBudget budget;
+    private final int capacity;
+    private final List<ParseError> errors = new ArrayList<>();
+    private int errorsCount;
+    private int rowsCount;
+    private int errorRowsCount;
+    private boolean rowHasErrors;
+
+    public ParseErrorCollector(ErrorBudget budget) {
+        this(budget, DEFAULT_CAPACITY);
+    }
+
+    public ParseErrorCollector(ErrorBudget budget, int capacity) {
+        if (budget == null) { throw new NullPointerException("budget is null"); }
+        if (capacity < 0) { throw new IllegalArgumentException("capacity is negative"); }
+        this.budget = budget;
+        this.capacity = capacity;
+    }
+
+    public final void add(int rowNum, int colNum, String column, String schemaType, Exception cause) {
+        if (this.errors.size() < this.capacity) { this.errors.add(new ParseError(rowNum, colNum, column, schemaType, cause)); }
+        this.errorsCount++;
+        this.rowHasErrors = true;
+    }
+
+    // Завершение строки данных. Возвращает true, если допустимое количество ошибок превышено.
+    public final boolean endRow() {
+        this.rowsCount++;
+        if (this.rowHasErrors) { this.errorRowsCount++; }
+        this.rowHasErrors = false;
+        return this.budget.isExceeded(this.errorsCount, this.rowsCount, this.errorRowsCount);
+    }
+
+    // Завершение файла. Возвращает true, если допустимое количество ошибок превышено по итогам всего файла.
+    public final boolean endFile() {
+        return this.budget.isExceededAtEnd(this.errorsCount, this.rowsCount, this.errorRowsCount);
+    }
+
+    public final List<ParseError> getErrors() {
+        return Collections.unmodifiableList(this.errors);
+    }
+
+    public final int getErrorsCount() {
+        return this.errorsCount;
+    }
+
+    public final int getRowsCount() {
+        return this.rowsCount;
+    }
+
+    public final int getErrorRowsCount() {
+        return this.errorRowsCount;
+    }
+}
@@ -0,0 +1,25 @@
+package ru.napalabs.bpms;
+
+import java.util.List;
+
+// Результат разбора файла.
+// success - файл разобран и ErrorBudget не превышен; aborted - разбор прерван на середине из-за превышения ErrorBudget.
+// Превышение, выявленное только по окончании файла (доля ошибок в файле короче выборки), даёт success = false
+// при aborted = false: строки к этому моменту уже переданы в saveEntityClass/updateEntityClass.
+// rowsCount - прочитано строк данных, savedCount - передано в saveEntityClass/updateEntityClass;
+// errors - первые ошибки преобразования ячеек (не более ParseErrorCollector.DEFAULT_CAPACITY), errorsCount - всего ошибок;
+// message - причина неудачи или null.
+public record ParseResult(boolean success, boolean aborted, String objectType, int rowsCount, int savedCount,
+                          int errorsCount, List<ParseError> errors, String message) {
+
+    public static ParseResult failed(String message) {
+        return new ParseResult(false, false, null, 0, 0, 0, List.of(), message);
+    }
+
+    static ParseResult of(ParseErrorCollector collector, boolean aborted, boolean budgetExceeded, String objectType, int savedCount) {
+        return new ParseResult(!budgetExceeded, aborted, objectType, collector.getRowsCount(), savedCount,
+                collector.getErrorsCount(), List.copyOf(collector.getErrors()),
+                budgetExceeded ? "Error budget exceeded: " + collector.getErrorsCount() + " errors in "
+                        + collector.getErrorRowsCount() + " of " + collector.getRowsCount() + " rows" : null);
+    }
+}
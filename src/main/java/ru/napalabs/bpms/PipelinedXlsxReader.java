@@ -0,0 +1,449 @@
+package ru.napalabs.bpms;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+// Конвейерное чтение первого листа XLSX без построения модели POI.
+// Этапы работают в отдельных потоках и перекрываются по времени:
+//  - распаковка sharedStrings.xml и его разбор в таблицу строк;
+//  - распаковка части листа и передача "сырых" кусков XML через ограниченный кольцевой буфер;
+//  - разбор XML листа в строки таблицы и передача их через второй ограниченный буфер;
+//  - преобразование строк (подстановка общих строк, приведение типов) в потоке вызывающего.
+public class PipelinedXlsxReader {
+    private static final String NS_RELATIONSHIPS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+    private static final String REL_TYPE_WORKSHEET = "/worksheet";
+    private static final String REL_TYPE_SHARED_STRINGS = "/sharedStrings";
+    private static final String DEFAULT_SHARED_STRINGS = "xl/sharedStrings.xml";
+
+    private static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+    private static final int DEFAULT_RING_CAPACITY = 16;
+    private static final long STOP_POLL_MILLIS = 10;
+
+    // Маркеры окончания потока данных в буферах
+    private static final byte[] END_OF_CHUNKS = new byte[0];
+    private static final RawRow END_OF_ROWS = new RawRow(-1, new String[0], new char[0]);
+
+    private static final char TYPE_NUMERIC = 'n';
+    private static final char TYPE_SHARED_STRING = 's';
+    private static final char TYPE_STRING = 't';
+    private static final char TYPE_BOOLEAN = 'b';
+    private static final char TYPE_BLANK = '\0';
+
+    private final File file;
+    private final int chunkSize;
+    private final int ringCapacity;
+
+    // Обработчик преобразованной строки. Номер строки начинается с 0, как в POI.
+    // Значения ячеек: String, Double, Boolean или null для пустой/отсутствующей ячейки.
+    // Возвращает false, чтобы прекратить чтение файла.
+    @FunctionalInterface
+    public interface RowHandler {
+        boolean onRow(int rowNum, Object[] values) throws Exception;
+    }
+
+    public PipelinedXlsxReader(File file) {
+        this(file, DEFAULT_CHUNK_SIZE, DEFAULT_RING_CAPACITY);
+    }
+
+    public PipelinedXlsxReader(File file, int chunkSize, int ringCapacity) {
+        if (file == null) { throw new NullPointerException("file is null"); }
+        if (chunkSize <= 0) { throw new IllegalArgumentException("chunkSize must be positive"); }
+        if (ringCapacity <= 0) { throw new IllegalArgumentException("ringCapacity must be positive"); }
+        this.file = file;
+        this.chunkSize = chunkSize;
+        this.ringCapacity = ringCapacity;
+    }
+
+    public final void read(RowHandler handler) throws IOException {
+        if (handler == null) { throw new NullPointerException("handler is null"); }
+
+        try (ZipFile zip = new ZipFile(this.file)) {
+            String[] parts = resolveParts(zip);
+            ZipEntry sheetEntry = zip.getEntry(parts[0]);
+            if (sheetEntry == null) { throw new IOException("Sheet part not found: " + parts[0]); }
+            ZipEntry sharedStringsEntry = zip.getEntry(parts[1]);
+
+            BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<>(this.ringCapacity);
+            BlockingQueue<RawRow> rows = new ArrayBlockingQueue<>(this.ringCapacity);
+            // Потоки запоминаем, чтобы при остановке дождаться их фактического завершения
+            List<Thread> threads = new CopyOnWriteArrayList<>();
+            ExecutorService executor = Executors.newFixedThreadPool(3, runnable -> {
+                Thread thread = new Thread(runnable, "xlsx-pipeline-" + this.file.getName());
+                thread.setDaemon(true);
+                threads.add(thread);
+                return thread;
+            });
+            try {
+                Future<List<String>> sharedStringsFuture = executor.submit(() -> readSharedStrings(zip, sharedStringsEntry));
+                Future<?> inflateFuture = executor.submit(() -> {
+                    inflate(zip, sheetEntry, chunks);
+                    return null;
+                });
+                Future<?> parseFuture = executor.submit(() -> {
+                    parseSheet(chunks, rows);
+                    return null;
+                });
+
+                // Общие строки нужны только на этапе преобразования, поэтому ждём их здесь,
+                // пока распаковка и разбор листа уже идут.
+                List<String> sharedStrings = await(sharedStringsFuture);
+                while (true) {
+                    RawRow row = rows.take();
+                    if (row == END_OF_ROWS) break;
+                    // Чтение прекращено обработчиком: этапы распаковки и разбора останавливаются в finally
+                    if (!handler.onRow(row.rowNum(), convert(row, sharedStrings))) return;
+                }
+                // Сначала проверяем разбор: после его сбоя буфер кусков никто не разбирает,
+                // и распаковка может навсегда остаться в ожидании места.
+                try {
+                    await(parseFuture);
+                } catch (Exception e) {
+                    stop(executor, threads, chunks, rows);
+                    // Сбой распаковки приводит к "обрезанному" XML: сообщаем исходную причину
+                    Exception inflateError = failureOf(inflateFuture);
+                    throw inflateError != null ? inflateError : e;
+                }
+                await(inflateFuture);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Pipelined read interrupted");
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            } finally {
+                // Останавливаем этапы до закрытия ZipFile
+                stop(executor, threads, chunks, rows);
+            }
+        }
+    }
+
+    // Прерывает этапы и ждёт их завершения. Этап, ожидающий места в буфере, получает его,
+    // т.к. буферы очищаются, пока все потоки не завершатся. awaitTermination возвращается, когда задачи
+    // закончились, но сами потоки ещё могут завершаться, поэтому дожидаемся их через join().
+    private static void stop(ExecutorService executor, List<Thread> threads, BlockingQueue<byte[]> chunks, BlockingQueue<RawRow> rows) {
+        executor.shutdownNow();
+        try {
+            while (!executor.awaitTermination(STOP_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                chunks.clear();
+                rows.clear();
+            }
+            for (Thread thread : threads) { thread.join(); }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Исключение завершившегося с ошибкой этапа или null. Прерывание этапа при остановке ошибкой не считается.
+    private static Exception failureOf(Future<?> future) {
+        if (!future.isDone() || future.isCancelled()) return null;
+        try {
+            future.get();
+            return null;
+        } catch (ExecutionException e) {
+            return e.getCause() instanceof Exception exception && !(exception instanceof InterruptedException) ? exception : null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    // Определяем пути к первому листу и таблице общих строк по workbook.xml и его связям.
+    private String[] resolveParts(ZipFile zip) throws IOException {
+        String sheetRelId = null;
+        ZipEntry workbookEntry = zip.getEntry("xl/workbook.xml");
+        if (workbookEntry == null) { throw new IOException("xl/workbook.xml not found"); }
+        try (InputStream in = zip.getInputStream(workbookEntry)) {
+            XMLStreamReader reader = createReader(in);
+            while (reader.hasNext() && sheetRelId == null) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT && "sheet".equals(reader.getLocalName())) {
+                    sheetRelId = reader.getAttributeValue(NS_RELATIONSHIPS, "id");
+                }
+            }
+            reader.close();
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+        if (sheetRelId == null) { throw new IOException("Workbook has no sheets"); }
+
+        String sheetPart = null;
+        String sharedStringsPart = DEFAULT_SHARED_STRINGS;
+        ZipEntry relsEntry = zip.getEntry("xl/_rels/workbook.xml.rels");
+        if (relsEntry == null) { throw new IOException("xl/_rels/workbook.xml.rels not found"); }
+        try (InputStream in = zip.getInputStream(relsEntry)) {
+            XMLStreamReader reader = createReader(in);
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT || !"Relationship".equals(reader.getLocalName())) continue;
+                String type = reader.getAttributeValue(null, "Type");
+                String target = reader.getAttributeValue(null, "Target");
+                if (type == null || target == null) continue;
+                if (type.endsWith(REL_TYPE_WORKSHEET) && sheetRelId.equals(reader.getAttributeValue(null, "Id"))) {
+                    sheetPart = resolveTarget(target);
+                } else if (type.endsWith(REL_TYPE_SHARED_STRINGS)) {
+                    sharedStringsPart = resolveTarget(target);
+                }
+            }
+            reader.close();
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+        if (sheetPart == null) { throw new IOException("Sheet relationship not found: " + sheetRelId); }
+
+        return new String[]{sheetPart, sharedStringsPart};
+    }
+
+    private static String resolveTarget(String target) {
+        return target.startsWith("/") ? target.substring(1) : "xl/" + target;
+    }
+
+    // Этап 1а: распаковка и разбор sharedStrings.xml. Часть может отсутствовать, если в книге нет общих строк.
+    private List<String> readSharedStrings(ZipFile zip, ZipEntry entry) throws IOException, XMLStreamException {
+        List<String> result = new ArrayList<>();
+        if (entry == null) return result;
+
+        try (InputStream in = zip.getInputStream(entry)) {
+            XMLStreamReader reader = createReader(in);
+            StringBuilder text = new StringBuilder();
+            boolean inPhonetic = false;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    switch (reader.getLocalName()) {
+                        case "si" -> text.setLength(0);
+                        case "rPh" -> inPhonetic = true;
+                        case "t" -> { if (!inPhonetic) text.append(reader.getElementText()); }
+                        default -> { }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    switch (reader.getLocalName()) {
+                        case "si" -> result.add(text.toString());
+                        case "rPh" -> inPhonetic = false;
+                        default -> { }
+                    }
+                }
+            }
+            reader.close();
+        }
+        return result;
+    }
+
+    // Этап 1б: распаковка листа кусками фиксированного размера в кольцевой буфер.
+    private void inflate(ZipFile zip, ZipEntry entry, BlockingQueue<byte[]> chunks) throws IOException, InterruptedException {
+        try (InputStream in = zip.getInputStream(entry)) {
+            while (true) {
+                byte[] chunk = new byte[this.chunkSize];
+                int length = in.readNBytes(chunk, 0, this.chunkSize);
+                if (length == 0) break;
+                chunks.put(length == this.chunkSize ? chunk : Arrays.copyOf(chunk, length));
+            }
+        } catch (InterruptedException e) {
+            // Сохраняем признак отмены для signalEnd
+            Thread.currentThread().interrupt();
+            throw e;
+        } finally {
+            signalEnd(chunks, END_OF_CHUNKS);
+        }
+    }
+
+    // Этап 2: разбор XML листа из кусков буфера в "сырые" строки.
+    private void parseSheet(BlockingQueue<byte[]> chunks, BlockingQueue<RawRow> rows) throws IOException, XMLStreamException, InterruptedException {
+        try {
+            XMLStreamReader reader = createReader(new ChunkInputStream(chunks));
+            List<String> values = new ArrayList<>();
+            StringBuilder types = new StringBuilder();
+            int rowNum = -1;
+            int colNum = -1;
+            char cellType = TYPE_BLANK;
+            String cellValue = null;
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    switch (reader.getLocalName()) {
+                        case "row" -> {
+                            String ref = reader.getAttributeValue(null, "r");
+                            rowNum = ref != null ? Integer.parseInt(ref) - 1 : rowNum + 1;
+                            colNum = -1;
+                            values.clear();
+                            types.setLength(0);
+                        }
+                        case "c" -> {
+                            String ref = reader.getAttributeValue(null, "r");
+                            colNum = ref != null ? columnIndex(ref) : colNum + 1;
+                            if (colNum < 0) { throw new IOException("Malformed cell reference: " + ref); }
+                            cellType = cellType(reader.getAttributeValue(null, "t"));
+                            cellValue = null;
+                        }
+                        case "v" -> cellValue = reader.getElementText();
+                        case "t" -> cellValue = cellValue == null ? reader.getElementText() : cellValue + reader.getElementText();
+                        default -> { }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    switch (reader.getLocalName()) {
+                        case "c" -> {
+                            while (values.size() <= colNum) {
+                                values.add(null);
+                                types.append(TYPE_BLANK);
+                            }
+                            values.set(colNum, cellValue);
+                            types.setCharAt(colNum, cellValue == null ? TYPE_BLANK : cellType);
+                        }
+                        case "row" -> rows.put(new RawRow(rowNum, values.toArray(new String[0]), types.toString().toCharArray()));
+                        default -> { }
+                    }
+                }
+            }
+            reader.close();
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed row reference", e);
+        } catch (InterruptedException e) {
+            // Сохраняем признак отмены для signalEnd
+            Thread.currentThread().interrupt();
+            throw e;
+        } finally {
+            signalEnd(rows, END_OF_ROWS);
+        }
+    }
+
+    // Этап 3: подстановка общих строк и приведение значений к типам Java.
+    // Испорченное значение (не число, ссылка за пределы таблицы общих строк) - ошибка чтения файла, а не данных.
+    private static Object[] convert(RawRow row, List<String> sharedStrings) throws IOException {
+        Object[] result = new Object[row.values().length];
+        for (int i = 0; i < result.length; i++) {
+            String value = row.values()[i];
+            try {
+                result[i] = switch (row.types()[i]) {
+                    case TYPE_NUMERIC -> value.isEmpty() ? null : Double.valueOf(value);
+                    case TYPE_SHARED_STRING -> sharedStrings.get(Integer.parseInt(value));
+                    case TYPE_STRING -> value;
+                    case TYPE_BOOLEAN -> "1".equals(value);
+                    default -> null;
+                };
+            } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                throw new IOException("Malformed cell value in row " + (row.rowNum() + 1) + ", column " + (i + 1) + ": " + value, e);
+            }
+        }
+        return result;
+    }
+
+    private static char cellType(String t) {
+        if (t == null || t.equals("n")) return TYPE_NUMERIC;
+        return switch (t) {
+            case "s" -> TYPE_SHARED_STRING;
+            case "str", "inlineStr", "d" -> TYPE_STRING;
+            case "b" -> TYPE_BOOLEAN;
+            // Ячейки с ошибкой ("e") считаем пустыми
+            default -> TYPE_BLANK;
+        };
+    }
+
+    // "AB12" -> 27
+    private static int columnIndex(String ref) {
+        int result = 0;
+        for (int i = 0; i < ref.length(); i++) {
+            char ch = ref.charAt(i);
+            if (ch < 'A' || ch > 'Z') break;
+            result = result * 26 + (ch - 'A' + 1);
+        }
+        return result - 1;
+    }
+
+    private static XMLStreamReader createReader(InputStream in) throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory.createXMLStreamReader(in);
+    }
+
+    // Маркер окончания кладём даже при сбое этапа, чтобы следующий этап не ждал вечно.
+    // Если поток прерван (чтение отменено), буфер уже никто не разбирает: не ждём места, а освобождаем его.
+    private static <T> void signalEnd(BlockingQueue<T> queue, T item) {
+        if (!Thread.currentThread().isInterrupted()) {
+            try {
+                queue.put(item);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        queue.clear();
+        queue.offer(item);
+    }
+
+    private static <T> T await(Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception exception) throw exception;
+            throw e;
+        }
+    }
+
+    private record RawRow(int rowNum, String[] values, char[] types) { }
+
+    // Поток байт поверх кольцевого буфера кусков, заполняемого этапом распаковки.
+    private static final class ChunkInputStream extends InputStream {
+        private final BlockingQueue<byte[]> chunks;
+        private byte[] current = new byte[0];
+        private int position;
+        private boolean finished;
+
+        private ChunkInputStream(BlockingQueue<byte[]> chunks) {
+            this.chunks = chunks;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) return -1;
+            return this.current[this.position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) return 0;
+            if (!fill()) return -1;
+            int count = Math.min(length, this.current.length - this.position);
+            System.arraycopy(this.current, this.position, buffer, offset, count);
+            this.position += count;
+            return count;
+        }
+
+        private boolean fill() throws IOException {
+            if (this.finished) return false;
+            while (this.position >= this.current.length) {
+                try {
+                    this.current = this.chunks.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Chunk read interrupted");
+                }
+                this.position = 0;
+                if (this.current == END_OF_CHUNKS) {
+                    this.finished = true;
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
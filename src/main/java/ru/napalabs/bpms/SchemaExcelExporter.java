@@ -0,0 +1,134 @@
+package ru.napalabs.bpms;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.stream.Stream;
+
+// Выгрузка объектов данных обратно в XLSX с колонками в порядке полей шаблона *_xls_schema.json.
+// Значения берутся геттерами полей, сопоставленных аттрибутам шаблона через аннотацию @Column JPA,
+// т.е. обратное сопоставление к AbstractExcelParser.parse(). Колонки без аттрибута ("displayText", "skip") остаются пустыми.
+// Запись идёт через SXSSFWorkbook: в памяти держится только окно из rowWindowSize строк, остальные сбрасываются на диск.
+// Числа Excel хранит как double (15 значащих цифр): Long и BigDecimal длиннее MAX_NUMERIC_DIGITS пишутся текстом,
+// чтобы не терять цифры. При обратной загрузке текст с числом принимается для bigint и bigdecimal.
+public class SchemaExcelExporter {
+    private static final int DEFAULT_ROW_WINDOW_SIZE = 100;
+    private static final int MAX_NUMERIC_DIGITS = 15;
+
+    private final Map<String, String> schemas;
+    private final int rowWindowSize;
+
+    public SchemaExcelExporter(Map<String, String> schemas) {
+        this(schemas, DEFAULT_ROW_WINDOW_SIZE);
+    }
+
+    public SchemaExcelExporter(Map<String, String> schemas, int rowWindowSize) {
+        if (schemas == null) { throw new NullPointerException("schemas is null"); }
+        if (rowWindowSize <= 0) { throw new IllegalArgumentException("rowWindowSize must be positive"); }
+        this.schemas = new HashMap<>(schemas);
+        this.rowWindowSize = rowWindowSize;
+    }
+
+    public final <T> int export(String schema, Class<T> entityClass, Stream<? extends T> entities, OutputStream out) throws IOException {
+        return export(schema, entityClass, entities.iterator(), out);
+    }
+
+    // Возвращает количество выгруженных объектов (без строки заголовков)
+    public final <T> int export(String schema, Class<T> entityClass, Iterator<? extends T> entities, OutputStream out) throws IOException {
+        if (schema == null || !this.schemas.containsKey(schema)) { throw new NullPointerException("Wrong or empty schema"); }
+        if (entityClass == null) { throw new NullPointerException("entityClass is null"); }
+        if (entities == null) { throw new NullPointerException("entities is null"); }
+        if (out == null) { throw new NullPointerException("out is null"); }
+
+        List<ExcelSchema.SchemaField> fields = ExcelSchema.readFields(this.schemas.get(schema));
+        if (fields.isEmpty()) { throw new NullPointerException("Wrong or empty schema"); }
+        Method[] getters = resolveGetters(entityClass, fields);
+
+        SXSSFWorkbook wb = new SXSSFWorkbook(this.rowWindowSize);
+        try {
+            Sheet sheet = wb.createSheet(schema);
+
+            // Первая строка - имена полей шаблона, по ним файл опознаётся при обратной загрузке
+            Row headerRow = sheet.createRow(0);
+            for (int colNum = 0; colNum < fields.size(); colNum++) {
+                headerRow.createCell(colNum).setCellValue(fields.get(colNum).name());
+            }
+
+            int rowNum = 0;
+            while (entities.hasNext()) {
+                T entityObject = entities.next();
+                Row row = sheet.createRow(++rowNum);
+                for (int colNum = 0; colNum < getters.length; colNum++) {
+                    if (getters[colNum] == null) continue;
+                    Object value = getters[colNum].invoke(entityObject);
+                    if (value != null) { setCellValue(row.createCell(colNum), value); }
+                }
+            }
+
+            wb.write(out);
+            return rowNum;
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new RuntimeException(e);
+        } finally {
+            // Закрытие удаляет и временные файлы со сброшенными строками
+            wb.close();
+        }
+    }
+
+    // Для каждой колонки - геттер поля, у которого аннотация @Column совпадает с именем аттрибута шаблона
+    private static Method[] resolveGetters(Class<?> entityClass, List<ExcelSchema.SchemaField> fields) {
+        Map<String, Field> columnFields = ExcelSchema.columnFields(entityClass);
+
+        Method[] getters = new Method[fields.size()];
+        for (int colNum = 0; colNum < getters.length; colNum++) {
+            Field field = fields.get(colNum).isAttribute() ? columnFields.get(fields.get(colNum).attributeName()) : null;
+            if (field == null) continue;
+            try {
+                getters[colNum] = entityClass.getMethod("get" + StringUtils.capitalize(field.getName()));
+            } catch (NoSuchMethodException ignore) {
+            }
+        }
+        return getters;
+    }
+
+    private static void setCellValue(Cell cell, Object value) {
+        if (value instanceof Long || value instanceof Integer) {
+            setCellValue(cell, BigDecimal.valueOf(((Number) value).longValue()));
+        } else if (value instanceof BigDecimal decimal) {
+            if (decimal.stripTrailingZeros().precision() > MAX_NUMERIC_DIGITS) {
+                cell.setCellValue(decimal.toPlainString());
+            } else {
+                cell.setCellValue(decimal.doubleValue());
+            }
+        } else if (value instanceof JsonNode json) {
+            cell.setCellValue(formatCoords(json));
+        } else {
+            cell.setCellValue(value.toString());
+        }
+    }
+
+    // Обратное преобразование к AbstractExcelParser.parseCoordsString2JSONArray: "широта долгота, широта долгота"
+    private static String formatCoords(JsonNode coords) {
+        if (!coords.hasNonNull("points")) return coords.toString();
+
+        StringJoiner result = new StringJoiner(", ");
+        coords.get("points").elements().forEachRemaining(point ->
+                result.add(point.get("latitude").asText() + " " + point.get("longitude").asText()));
+        return result.toString();
+    }
+}
@@ -4,34 +4,49 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import org.apache.commons.io.FileUtils;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.ArgumentCaptor;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import ru.napalabs.bpms.models.AuditOrderDemo;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.reflect.Field;
+import java.math.BigDecimal;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class ExcelParserTest {
@@ -297,6 +312,463 @@ class ExcelParserTest {
         // When
         parser.getWorkbook(file);
         parser.loadSchemas();
-        assertTrue(parser.parse(AuditOrderDemo.class, parser.detectObjectType()));
+        assertTrue(parser.parse(AuditOrderDemo.class, parser.detectObjectType()).success());
     }
-}
\ No newline at end of file
+
+    @ParameterizedTest
+    @CsvSource({
+            "/объекты аудита/колодцы ТС_МС_new.xlsx, 2",
+            "/объекты аудита/опоры ТС_МС_new.xlsx, 667"
+    })
+    void do_parsePipelined_success(String fileName, Integer rowsCount) {
+        // Given
+        AbstractExcelParser parser = Mockito.mock(AbstractExcelParser.class, Mockito.withSettings()
+                .useConstructor("jsons/audit_objects_schema/")
+                .defaultAnswer(Mockito.CALLS_REAL_METHODS));
+        String resourcesDirectory = "src/test/resources";
+        File file = new File(resourcesDirectory + fileName);
+
+        // When
+        parser.loadSchemas();
+        // Then
+        assertTrue(parser.parsePipelined(file, AuditOrderDemo.class).success());
+        verify(parser, times(rowsCount)).saveEntityClass(any(AuditOrderDemo.class));
+    }
+
+    @Test
+    void do_parsePipelined_rowGap(@TempDir Path tempDir) throws IOException {
+        // Given
+        String fileName = "/объекты аудита/муфты ТС_МС_new.xlsx";
+        AbstractExcelParser parser = Mockito.mock(AbstractExcelParser.class, Mockito.withSettings()
+                .useConstructor("jsons/audit_objects_schema/")
+                .defaultAnswer(Mockito.CALLS_REAL_METHODS));
+        String resourcesDirectory = "src/test/resources";
+        File file = tempDir.resolve("муфты.xlsx").toFile();
+        // Удаляем строку 100: дальше неё оба способа разбора не идут
+        try (FileInputStream in = new FileInputStream(resourcesDirectory + fileName);
+             Workbook wb = WorkbookFactory.create(in);
+             OutputStream out = new FileOutputStream(file)) {
+            Sheet sheet = wb.getSheetAt(0);
+            sheet.removeRow(sheet.getRow(100));
+            wb.write(out);
+        }
+
+        // When
+        parser.getWorkbook(file);
+        parser.loadSchemas();
+        ParseResult result = parser.parse(AuditOrderDemo.class, parser.detectObjectType());
+        ParseResult pipelinedResult = parser.parsePipelined(file, AuditOrderDemo.class);
+
+        // Then
+        assertTrue(result.success());
+        assertEquals(99, result.savedCount());
+        assertTrue(pipelinedResult.success());
+        assertEquals(99, pipelinedResult.savedCount());
+    }
+
+    @Test
+    void do_parsePipelined_failed_headerMissing(@TempDir Path tempDir) throws IOException {
+        // Given
+        String fileName = "/объекты аудита/колодцы ТС_МС_new.xlsx";
+        AbstractExcelParser parser = Mockito.mock(AbstractExcelParser.class, Mockito.withSettings()
+                .useConstructor("jsons/audit_objects_schema/")
+                .defaultAnswer(Mockito.CALLS_REAL_METHODS));
+        String resourcesDirectory = "src/test/resources";
+        File file = new File(resourcesDirectory + fileName);
+        File noHeaderFile = tempDir.resolve("колодцы.xlsx").toFile();
+        try (FileInputStream in = new FileInputStream(file);
+             Workbook wb = WorkbookFactory.create(in);
+             OutputStream out = new FileOutputStream(noHeaderFile)) {
+            Sheet sheet = wb.getSheetAt(0);
+            sheet.removeRow(sheet.getRow(0));
+            wb.write(out);
+        }
+
+        // When
+        parser.loadSchemas();
+        assertTrue(parser.parsePipelined(file, AuditOrderDemo.class).success());
+        // Тот же парсер не должен использовать колонки предыдущего файла
+        ParseResult result = parser.parsePipelined(noHeaderFile, AuditOrderDemo.class);
+
+        // Then
+        assertFalse(result.success());
+        assertEquals("Header row is missing", result.message());
+        verify(parser, times(2)).saveEntityClass(any(AuditOrderDemo.class));
+    }
+
+    @Test
+    void do_parsePipelined_failed_fileNotFound() {
+        // Given
+        AbstractExcelParser parser = Mockito.mock(AbstractExcelParser.class, Mockito.withSettings()
+                .useConstructor("jsons/audit_objects_schema/")
+                .defaultAnswer(Mockito.CALLS_REAL_METHODS));
+        String resourcesDirectory = "src/test/resources";
+        File file = new File(resourcesDirectory + "fileName");
+
+        // When
+        parser.loadSchemas();
+        // Then
+        assertFalse(assertDoesNotThrow(() -> parser.parsePipelined(file, AuditOrderDemo.class)).success());
+        verify(parser, never()).saveEntityClass(any());
+    }
+
+    @Test
+    void do_parse_deduplicate_existingKeys() throws JsonProcessingException {
+        // Given
+        String fileName = "/объекты аудита/колодцы ТС_МС_new.xlsx";
+        AbstractExcelParser parser = Mockito.mock(AbstractExcelParser.class, Mockito.withSettings()
+                .useConstructor("jsons/audit_objects_schema/")
+                .defaultAnswer(Mockito.CALLS_REAL_METHODS));
+        String resourcesDirectory = "src/test/resources";
+        File file = new File(resourcesDirectory + fileName);
+
+        // When
+        parser.getWorkbook(file);
+        parser.loadSchemas();
+        parser.setKeyDeduplicator(new KeyDeduplicator("eqm_id", new long[]{903829L}, KeyDeduplicator.ExistingKeyAction.SKIP));
+        // Then
+        assertTrue(parser.parse(AuditOrderDemo.class, parser.detectObjectType()).success());
+        verify(parser, times(1)).saveEntityClass(any(AuditOrderDemo.class));
+
+        // When 2
+        parser.setKeyDeduplicator(new KeyDeduplicator("eqm_id", new long[]{903829L}, KeyDeduplicator.ExistingKeyAction.UPSERT));
+        // Then 2
+        assertTrue(parser.parsePipelined(file, AuditOrderDemo.class).success());
+        verify(parser, times(1)).updateEntityClass(any(AuditOrderDemo.class));
+        verify(parser, times(3)).saveEntityClass(any(AuditOrderDemo.class));
+    }
+
+    @Test
+    void do_parse_deduplicate_textKeys() throws JsonProcessingException {
+        // Given
+        // В муфтах eo_sap_code - формула с текстовым результатом, например "20000004546428" во второй строке
+        String fileName = "/объекты аудита/муфты ТС_МС_new.xlsx";
+        AbstractExcelParser parser = Mockito.mock(AbstractExcelParser.class, Mockito.withSettings()
+                .useConstructor("jsons/audit_objects_schema/")
+                .defaultAnswer(Mockito.CALLS_REAL_METHODS));
+        String resourcesDirectory = "src/test/resources";
+        File file = new File(resourcesDirectory + fileName);
+        long[] existingKeys = {20000004546428L, 20000004546429L};
+
+        // When
+        parser.getWorkbook(file);
+        parser.loadSchemas();
+        KeyDeduplicator deduplicator = new KeyDeduplicator("eo_sap_code", existingKeys, KeyDeduplicator.ExistingKeyAction.SKIP);
+        parser.setKeyDeduplicator(deduplicator);
+        // Then
+        assertEquals(362, parser.parse(AuditOrderDemo.class, parser.detectObjectType()).savedCount());
+        assertEquals(2, deduplicator.getExistingCount());
+        verify(parser, times(362)).saveEntityClass(any(AuditOrderDemo.class));
+
+        // When 2
+        deduplicator = new KeyDeduplicator("eo_sap_code", existingKeys, KeyDeduplicator.ExistingKeyAction.UPSERT);
+        parser.setKeyDeduplicator(deduplicator);
+        // Then 2
+        assertEquals(364, parser.parsePipelined(file, AuditOrderDemo.class).savedCount());
+        assertEquals(2, deduplicator.getExistingCount());
+        verify(parser, times(2)).updateEntityClass(any(AuditOrderDemo.class));
+        // updateEntityClass по умолчанию передаёт объект в saveEntityClass
+        verify(parser, times(362 + 364)).saveEntityClass(any(AuditOrderDemo.class));
+    }
+
+    @Test
+    void do_parse_deduplicate_inFileDuplicates() throws JsonProcessingException, NoSuchFieldException, IllegalAccessException {
+        // Given
+        String fileName = "/объекты аудита/колодцы ТС_МС_new.xlsx";
+        AbstractExcelParser parser = Mockito.mock(AbstractExcelParser.class, Mockito.withSettings()
+                .useConstructor("jsons/audit_objects_schema/")
+                .defaultAnswer(Mockito.CALLS_REAL_METHODS));
+        String resourcesDirectory = "src/test/resources";
+        File file = new File(resourcesDirectory + fileName);
+        KeyDeduplicator deduplicator = new KeyDeduplicator("eqm_id");
+
+        // When
+        parser.getWorkbook(file);
+        parser.loadSchemas();
+        Field sheetField = AbstractExcelParser.class.getDeclaredField("sheet");
+        sheetField.setAccessible(true);
+        Sheet sheet = (Sheet) sheetField.get(parser);
+        // Колонка pnt_id второй строки данных получает тот же ключ, что и первая
+        sheet.getRow(2).getCell(2).setCellValue(sheet.getRow(1).getCell(2).getNumericCellValue());
+        parser.setKeyDeduplicator(deduplicator);
+        // Then
+        assertTrue(parser.parse(AuditOrderDemo.class, parser.detectObjectType()).success());
+        verify(parser, times(1)).saveEntityClass(any(AuditOrderDemo.class));
+        assertEquals(1, deduplicator.getDuplicatesCount());
+    }
+
+    @Test
+    void do_export_success(@TempDir Path tempDir) throws IOException {
+        // Given
+        AbstractExcelParser parser = Mockito.mock(AbstractExcelParser.class, Mockito.withSettings()
+                .useConstructor("jsons/audit_objects_schema/")
+                .defaultAnswer(Mockito.CALLS_REAL_METHODS));
+        SchemaExcelExporter exporter = new SchemaExcelExporter(parser.loadSchemas(), 10);
+        File file = tempDir.resolve("well.xlsx").toFile();
+        List<AuditOrderDemo> entities = new ArrayList<>();
+        for (long eqmId = 1; eqmId <= 25; eqmId++) {
+            AuditOrderDemo auditOrderDemo = new AuditOrderDemo();
+            auditOrderDemo.setCityId(907L);
+            auditOrderDemo.setCityName("Курск");
+            auditOrderDemo.setEqmId(eqmId);
+            auditOrderDemo.setLatitude(new BigDecimal("51.75980193"));
+            entities.add(auditOrderDemo);
+        }
+        // Значения длиннее 15 значащих цифр не помещаются в double
+        entities.get(24).setLongitude(new BigDecimal("36.1871548612345678"));
+        entities.get(24).setEoSapCode(12345678901234567L);
+
+        // When
+        try (OutputStream out = new FileOutputStream(file)) {
+            assertEquals(25, exporter.export("well", AuditOrderDemo.class, entities.stream(), out));
+        }
+        // Then
+        List<Object[]> rows = new ArrayList<>();
+        new PipelinedXlsxReader(file).read((rowNum, values) -> rows.add(values));
+        assertEquals(26, rows.size());
+        assertEquals(12, rows.get(0).length);
+        assertEquals("pnt_id", rows.get(0)[2]);
+        assertEquals("Курск", rows.get(1)[1]);
+        assertEquals(25.0, rows.get(25)[2]);
+        assertEquals(51.75980193, rows.get(25)[9]);
+        assertEquals("36.1871548612345678", rows.get(25)[10]);
+        assertEquals("12345678901234567", rows.get(25)[11]);
+
+        // Выгруженный файл загружается обратно тем же шаблоном, без потери цифр
+        assertTrue(parser.parsePipelined(file, AuditOrderDemo.class).success());
+        ArgumentCaptor<AuditOrderDemo> saved = ArgumentCaptor.forClass(AuditOrderDemo.class);
+        verify(parser, times(25)).saveEntityClass(saved.capture());
+        assertEquals(new BigDecimal("36.1871548612345678"), saved.getAllValues().get(24).getLongitude());
+        assertEquals(12345678901234567L, saved.getAllValues().get(24).getEoSapCode());
+    }
+
+    @Test
+    void do_export_failed_wrongSchema() {
+        // Given
+        AbstractExcelParser parser = Mockito.mock(AbstractExcelParser.class, Mockito.withSettings()
+                .useConstructor("jsons/audit_objects_schema/")
+                .defaultAnswer(Mockito.CALLS_REAL_METHODS));
+        SchemaExcelExporter exporter = new SchemaExcelExporter(parser.loadSchemas());
+        // Then
+        Exception e = assertThrows(NullPointerException.class,
+                () -> exporter.export("wrong", AuditOrderDemo.class, Stream.<AuditOrderDemo>empty(), OutputStream.nullOutputStream()));
+        assertEquals("Wrong or empty schema", e.getMessage());
+    }
+
+    @Test
+    void do_parse_errors_collected() throws JsonProcessingException, NoSuchFieldException, IllegalAccessException {
+        // Given
+        String fileName = "/объекты аудита/колодцы ТС_МС_new.xlsx";
+        AbstractExcelParser parser = Mockito.mock(AbstractExcelParser.class, Mockito.withSettings()
+                .useConstructor("jsons/audit_objects_schema/")
+                .defaultAnswer(Mockito.CALLS_REAL_METHODS));
+        String resourcesDirectory = "src/test/resources";
+        File file = new File(resourcesDirectory + fileName);
+
+        // When
+        parser.getWorkbook(file);
+        parser.loadSchemas();
+        Field sheetField = AbstractExcelParser.class.getDeclaredField("sheet");
+        sheetField.setAccessible(true);
+        Sheet sheet = (Sheet) sheetField.get(parser);
+        // Текст в колонке pnt_id типа bigint первой строки данных
+        sheet.getRow(1).getCell(2).setCellValue("abc");
+        ParseResult result = parser.parse(AuditOrderDemo.class, parser.detectObjectType());
+
+        // Then
+        // eo_sap_code хранится формулой с текстовым результатом: пустой в первой строке, "20000008133428" во второй.
+        // Пустая ячейка ошибкой не считается, текст с числом преобразуется в bigint.
+        assertTrue(result.success());
+        assertEquals(2, result.rowsCount());
+        assertEquals(2, result.savedCount());
+        assertEquals(1, result.errorsCount());
+        ArgumentCaptor<AuditOrderDemo> saved = ArgumentCaptor.forClass(AuditOrderDemo.class);
+        verify(parser, times(2)).saveEntityClass(saved.capture());
+        assertEquals(20000008133428L, saved.getAllValues().get(1).getEoSapCode());
+        ParseError error = result.errors().get(0);
+        assertEquals(1, error.rowNum());
+        assertEquals(2, error.colNum());
+        assertEquals("pnt_id", error.column());
+        assertEquals("bigint", error.schemaType());
+    }
+
+    @Test
+    void do_parse_errors_budgetExceeded() throws JsonProcessingException, NoSuchFieldException, IllegalAccessException {
+        // Given
+        String fileName = "/объекты аудита/колодцы ТС_МС_new.xlsx";
+        AbstractExcelParser parser = Mockito.mock(AbstractExcelParser.class, Mockito.withSettings()
+                .useConstructor("jsons/audit_objects_schema/")
+                .defaultAnswer(Mockito.CALLS_REAL_METHODS));
+        String resourcesDirectory = "src/test/resources";
+        File file = new File(resourcesDirectory + fileName);
+
+        // When
+        parser.getWorkbook(file);
+        parser.loadSchemas();
+        Field sheetField = AbstractExcelParser.class.getDeclaredField("sheet");
+        sheetField.setAccessible(true);
+        Sheet sheet = (Sheet) sheetField.get(parser);
+        sheet.getRow(1).getCell(0).setCellValue("Курск");
+        parser.setErrorBudget(ErrorBudget.maxErrors(0));
+        ParseResult result = parser.parse(AuditOrderDemo.class, parser.detectObjectType());
+
+        // Then
+        assertFalse(result.success());
+        assertTrue(result.aborted());
+        assertEquals(1, result.rowsCount());
+        assertEquals(0, result.savedCount());
+        assertEquals("city_id", result.errors().get(0).column());
+        verify(parser, never()).saveEntityClass(any());
+    }
+
+    @Test
+    void do_parsePipelined_errors_numericTextNotCounted() {
+        // Given
+        String fileName = "/объекты аудита/колодцы ТС_МС_new.xlsx";
+        AbstractExcelParser parser = Mockito.mock(AbstractExcelParser.class, Mockito.withSettings()
+                .useConstructor("jsons/audit_objects_schema/")
+                .defaultAnswer(Mockito.CALLS_REAL_METHODS));
+        String resourcesDirectory = "src/test/resources";
+        File file = new File(resourcesDirectory + fileName);
+
+        // When
+        parser.loadSchemas();
+        parser.setErrorBudget(ErrorBudget.maxErrors(0));
+        ParseResult result = parser.parsePipelined(file, AuditOrderDemo.class);
+
+        // Then
+        // Ошибочных ячеек нет: eo_sap_code - пустой текст или текст с числом, как и при разборе через POI
+        assertTrue(result.success());
+        assertEquals("well", result.objectType());
+        assertEquals(2, result.savedCount());
+        assertEquals(0, result.errorsCount());
+        ArgumentCaptor<AuditOrderDemo> saved = ArgumentCaptor.forClass(AuditOrderDemo.class);
+        verify(parser, times(2)).saveEntityClass(saved.capture());
+        assertNull(saved.getAllValues().get(0).getEoSapCode());
+        assertEquals(20000008133428L, saved.getAllValues().get(1).getEoSapCode());
+        assertEquals(0, new BigDecimal("51.76474256").compareTo(saved.getAllValues().get(1).getLatitude()));
+    }
+
+    @Test
+    void do_parsePipelined_errors_budgetExceeded(@TempDir Path tempDir) throws IOException {
+        // Given
+        String fileName = "/объекты аудита/колодцы ТС_МС_new.xlsx";
+        AbstractExcelParser parser = Mockito.mock(AbstractExcelParser.class, Mockito.withSettings()
+                .useConstructor("jsons/audit_objects_schema/")
+                .defaultAnswer(Mockito.CALLS_REAL_METHODS));
+        String resourcesDirectory = "src/test/resources";
+        File file = tempDir.resolve("колодцы.xlsx").toFile();
+        // Текст в колонке pnt_id типа bigint первой строки данных
+        try (FileInputStream in = new FileInputStream(resourcesDirectory + fileName);
+             Workbook wb = WorkbookFactory.create(in);
+             OutputStream out = new FileOutputStream(file)) {
+            wb.getSheetAt(0).getRow(1).getCell(2).setCellValue("abc");
+            wb.write(out);
+        }
+
+        // When
+        parser.loadSchemas();
+        parser.setErrorBudget(ErrorBudget.maxErrors(0));
+        ParseResult result = parser.parsePipelined(file, AuditOrderDemo.class);
+
+        // Then
+        assertFalse(result.success());
+        assertTrue(result.aborted());
+        assertEquals("well", result.objectType());
+        assertEquals(1, result.rowsCount());
+        assertEquals(0, result.savedCount());
+        assertEquals(1, result.errorsCount());
+        assertEquals("pnt_id", result.errors().get(0).column());
+        verify(parser, never()).saveEntityClass(any());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "/объекты аудита/колодцы ТС_МС_new.xlsx, 2",
+            "/объекты аудита/кабели ТС_МС_new.xlsx, 449",
+            "/объекты аудита/кроссы ТС_МС_new.xlsx, 376",
+            "/объекты аудита/муфты ТС_МС_new.xlsx, 364",
+            "/объекты аудита/опоры ТС_МС_new.xlsx, 667"
+    })
+    void do_parse_errors_noneInFixtures(String fileName, Integer rowsCount) throws JsonProcessingException {
+        // Given
+        AbstractExcelParser parser = Mockito.mock(AbstractExcelParser.class, Mockito.withSettings()
+                .useConstructor("jsons/audit_objects_schema/")
+                .defaultAnswer(Mockito.CALLS_REAL_METHODS));
+        String resourcesDirectory = "src/test/resources";
+        File file = new File(resourcesDirectory + fileName);
+
+        // When
+        parser.getWorkbook(file);
+        parser.loadSchemas();
+        // Ключи в примерах - числа и текст с числом, ни то ни другое не ошибка
+        parser.setErrorBudget(ErrorBudget.maxErrors(0));
+        ParseResult result = parser.parse(AuditOrderDemo.class, parser.detectObjectType());
+        ParseResult pipelinedResult = parser.parsePipelined(file, AuditOrderDemo.class);
+
+        // Then
+        assertTrue(result.success());
+        assertEquals(0, result.errorsCount());
+        assertEquals(rowsCount, result.savedCount());
+        assertTrue(pipelinedResult.success());
+        assertEquals(0, pipelinedResult.errorsCount());
+        assertEquals(rowsCount, pipelinedResult.savedCount());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "0.1, false",
+            "0.5, true",
+    })
+    void do_parse_errors_ratioBudget(double maxErrorRowsRatio, boolean success) throws JsonProcessingException, NoSuchFieldException, IllegalAccessException {
+        // Given
+        String fileName = "/объекты аудита/колодцы ТС_МС_new.xlsx";
+        AbstractExcelParser parser = Mockito.mock(AbstractExcelParser.class, Mockito.withSettings()
+                .useConstructor("jsons/audit_objects_schema/")
+                .defaultAnswer(Mockito.CALLS_REAL_METHODS));
+        String resourcesDirectory = "src/test/resources";
+        File file = new File(resourcesDirectory + fileName);
+
+        // When
+        parser.getWorkbook(file);
+        parser.loadSchemas();
+        Field sheetField = AbstractExcelParser.class.getDeclaredField("sheet");
+        sheetField.setAccessible(true);
+        Sheet sheet = (Sheet) sheetField.get(parser);
+        sheet.getRow(1).getCell(0).setCellValue("Курск");
+        // В файле 2 строки данных - меньше выборки, доля ошибочных строк 1 / 2 считается по окончании файла
+        parser.setErrorBudget(ErrorBudget.maxErrorRowsRatio(maxErrorRowsRatio, 1000));
+        ParseResult result = parser.parse(AuditOrderDemo.class, parser.detectObjectType());
+
+        // Then
+        assertEquals(success, result.success());
+        assertFalse(result.aborted());
+        assertEquals(2, result.rowsCount());
+        assertEquals(2, result.savedCount());
+        assertEquals(1, result.errorsCount());
+        assertEquals(success, result.message() == null);
+    }
+
+    @Test
+    void do_errorBudget_isExceeded() {
+        ErrorBudget maxErrors = ErrorBudget.maxErrors(2);
+        assertFalse(maxErrors.isExceeded(2, 10, 2));
+        assertTrue(maxErrors.isExceeded(3, 10, 2));
+        assertTrue(maxErrors.isExceededAtEnd(3, 10, 2));
+
+        ErrorBudget ratio = ErrorBudget.maxErrorRowsRatio(0.1, 100);
+        // В выборке прерываем, как только ошибочных строк больше 10 из 100
+        assertFalse(ratio.isExceeded(50, 50, 10));
+        assertTrue(ratio.isExceeded(11, 50, 11));
+        // После выборки доля не пересчитывается
+        assertFalse(ratio.isExceeded(500, 1000, 500));
+        assertFalse(ratio.isExceededAtEnd(500, 1000, 500));
+        // Файл короче выборки - доля от прочитанных строк
+        assertFalse(ratio.isExceeded(2, 10, 2));
+        assertTrue(ratio.isExceededAtEnd(2, 10, 2));
+        assertFalse(ratio.isExceededAtEnd(1, 10, 1));
+        assertFalse(ratio.isExceededAtEnd(0, 0, 0));
+
+        assertFalse(ErrorBudget.unlimited().isExceededAtEnd(100, 100, 100));
+    }
+}
@@ -0,0 +1,75 @@
+package ru.napalabs.bpms;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongHashSetTest {
+
+    @Test
+    void do_add_growth() {
+        // Given
+        LongHashSet set = new LongHashSet(16);
+        Set<Long> expected = new HashSet<>();
+        Random random = new Random(42);
+        // When
+        for (int i = 0; i < 100_000; i++) {
+            // Последовательные идентификаторы вперемешку со случайными, в том числе отрицательными и повторами
+            long key = i % 3 == 0 ? random.nextLong() : i % 3 == 1 ? i : random.nextInt(1000);
+            assertEquals(expected.add(key), set.add(key));
+        }
+        // Then
+        assertEquals(expected.size(), set.size());
+        for (long key : expected) {
+            assertTrue(set.contains(key));
+        }
+        for (long key = 100_000; key < 110_000; key++) {
+            assertEquals(expected.contains(key), set.contains(key));
+        }
+    }
+
+    @Test
+    void do_add_zeroKey() {
+        // Given
+        LongHashSet set = new LongHashSet();
+        // When -> Then
+        assertFalse(set.contains(0));
+        assertTrue(set.add(0));
+        assertFalse(set.add(0));
+        assertTrue(set.contains(0));
+        assertEquals(1, set.size());
+
+        assertTrue(set.add(1024));
+        assertEquals(2, set.size());
+
+        set.clear();
+        assertFalse(set.contains(0));
+        assertFalse(set.contains(1024));
+        assertEquals(0, set.size());
+        assertTrue(set.add(0));
+    }
+
+    @Test
+    void do_clear_afterGrowth() {
+        // Given
+        LongHashSet set = new LongHashSet(0);
+        for (long key = 1; key <= 10_000; key++) {
+            set.add(key);
+        }
+        // When
+        set.clear();
+        // Then
+        assertEquals(0, set.size());
+        for (long key = 1; key <= 10_000; key++) {
+            assertFalse(set.contains(key));
+            assertTrue(set.add(key));
+        }
+        assertEquals(10_000, set.size());
+    }
+}
@@ -0,0 +1,219 @@
+package ru.napalabs.bpms;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.Column;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.napalabs.bpms.models.AuditOrderDemo;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MainTest {
+
+    @Test
+    void do_parseArgs_success() {
+        // When
+        Map<String, String> options = Main.parseArgs(new String[]{
+                "--schemas", "jsons/audit_objects_schema/", "--input", "data/*.xlsx", "--parallelism", "4",
+                "--sink", "stdout", "--summary", "summary.json", "--pipelined", "--create-table", "--max-errors", "10"});
+        // Then
+        assertEquals("jsons/audit_objects_schema/", options.get("--schemas"));
+        assertEquals("data/*.xlsx", options.get("--input"));
+        assertEquals("4", options.get("--parallelism"));
+        assertEquals("stdout", options.get("--sink"));
+        assertEquals("summary.json", options.get("--summary"));
+        assertEquals("10", options.get("--max-errors"));
+        assertTrue(options.containsKey("--pipelined"));
+        assertTrue(options.containsKey("--create-table"));
+        assertFalse(options.containsKey("--table"));
+    }
+
+    @Test
+    void do_parseArgs_failed() {
+        // Обязательные параметры
+        assertThrows(IllegalArgumentException.class, () -> Main.parseArgs(new String[]{"--schemas", "jsons/"}));
+        assertThrows(IllegalArgumentException.class, () -> Main.parseArgs(new String[]{"--input", "data/"}));
+        // Нет значения параметра
+        assertThrows(IllegalArgumentException.class, () -> Main.parseArgs(new String[]{"--input", "data/", "--schemas"}));
+        // Неизвестный параметр
+        assertThrows(IllegalArgumentException.class, () -> Main.parseArgs(new String[]{"--schemas", "jsons/", "--input", "data/", "--unknown"}));
+        // Объекты данных и сводка не должны попасть в stdout вместе
+        assertThrows(IllegalArgumentException.class, () -> Main.parseArgs(new String[]{"--schemas", "jsons/", "--input", "data/", "--sink", "stdout"}));
+    }
+
+    @Test
+    void do_listWorkbooks_success(@TempDir Path tempDir) throws IOException {
+        // Given
+        for (String name : List.of("b.xlsx", "a.xlsx", "a_new.xlsx", "c.txt")) {
+            Files.createFile(tempDir.resolve(name));
+        }
+        Files.createDirectory(tempDir.resolve("sub.xlsx"));
+        // When -> Then
+        // Каталог - все *.xlsx в нём, без подкаталогов, по порядку имён
+        assertEquals(List.of(tempDir.resolve("a.xlsx"), tempDir.resolve("a_new.xlsx"), tempDir.resolve("b.xlsx")),
+                Main.listWorkbooks(tempDir.toString()));
+        // Отдельный файл
+        assertEquals(List.of(tempDir.resolve("c.txt")), Main.listWorkbooks(tempDir.resolve("c.txt").toString()));
+        // Маска
+        assertEquals(List.of(tempDir.resolve("a_new.xlsx")), Main.listWorkbooks(tempDir + "/*_new.xlsx"));
+        assertEquals(List.of(tempDir.resolve("a.xlsx"), tempDir.resolve("a_new.xlsx")), Main.listWorkbooks(tempDir + "/a*.xlsx"));
+    }
+
+    @Test
+    void do_listWorkbooks_failed_noMatches(@TempDir Path tempDir) throws IOException {
+        // Given
+        Files.createFile(tempDir.resolve("a.xlsx"));
+        // When -> Then
+        assertThrows(IllegalArgumentException.class, () -> Main.listWorkbooks(tempDir + "/*.csv"));
+        assertThrows(IOException.class, () -> Main.listWorkbooks(tempDir.resolve("missing") + "/*.xlsx"));
+    }
+
+    @Test
+    void do_toJson_success() throws IOException {
+        // Given
+        Map<String, Long> phases = new LinkedHashMap<>();
+        phases.put("loadSchemas", 2_000_000L);
+        phases.put("parse", 1_000_000_000L);
+        List<Main.FileResult> results = List.of(
+                new Main.FileResult(Path.of("well.xlsx"), "well", true, 500, 1_002_000_000L, phases, 0, null),
+                new Main.FileResult(Path.of("broken.xlsx"), null, false, 0, 1_000_000L, Map.of(), 3, "Workbook is not opened"));
+        // When
+        JsonNode summary = new ObjectMapper().readTree(
+                Main.toJson(results, 2_000_000_000L, 64L * 1024 * 1024, 2, "jdbc:h2:./ingest;PASSWORD=secret", true));
+        // Then
+        assertEquals(2, summary.get("parallelism").asInt());
+        assertEquals("jdbc", summary.get("sink").asText());
+        assertTrue(summary.get("pipelined").asBoolean());
+
+        assertEquals(2, summary.get("files").size());
+        JsonNode well = summary.get("files").get(0);
+        assertEquals("well.xlsx", well.get("file").asText());
+        assertEquals("well", well.get("objectType").asText());
+        assertTrue(well.get("success").asBoolean());
+        assertEquals(500, well.get("rows").asLong());
+        assertEquals(0, well.get("parseErrors").asInt());
+        assertEquals(1002, well.get("millis").asLong());
+        assertEquals(2, well.get("phasesMillis").get("loadSchemas").asLong());
+        assertEquals(1000, well.get("phasesMillis").get("parse").asLong());
+        assertTrue(well.get("error").isNull());
+        JsonNode broken = summary.get("files").get(1);
+        assertFalse(broken.get("success").asBoolean());
+        assertEquals(3, broken.get("parseErrors").asInt());
+        assertEquals("Workbook is not opened", broken.get("error").asText());
+
+        JsonNode total = summary.get("total");
+        assertEquals(2, total.get("files").asInt());
+        assertEquals(1, total.get("failed").asInt());
+        assertEquals(500, total.get("rows").asLong());
+        assertEquals(2000, total.get("millis").asLong());
+        assertEquals(250d, total.get("rowsPerSecond").asDouble());
+        assertEquals(64L * 1024 * 1024, total.get("peakHeapBytes").asLong());
+    }
+
+    @Test
+    void do_toSnakeCase_success() {
+        assertEquals("audit_order_demo", JdbcEntitySink.toSnakeCase("AuditOrderDemo"));
+        assertEquals("well", JdbcEntitySink.toSnakeCase("Well"));
+    }
+
+    @Test
+    void do_jdbcSink_success() throws SQLException {
+        // Given
+        // Больше двух пакетов, последний неполный - записывается при закрытии
+        final int ENTITIES_COUNT = 2500;
+        String url = "jdbc:h2:mem:do_jdbcSink_success;DB_CLOSE_DELAY=-1";
+        // When
+        try (EntitySink sink = EntitySink.of(url, null, true)) {
+            for (long id = 1; id <= ENTITIES_COUNT; id++) {
+                AuditOrderDemo auditOrderDemo = new AuditOrderDemo();
+                auditOrderDemo.setId(id);
+                auditOrderDemo.setObjectType("WELL");
+                auditOrderDemo.setLatitude(new BigDecimal("55.751244"));
+                auditOrderDemo.setDueDate(LocalDate.of(2024, 10, 1));
+                auditOrderDemo.setCreationDate(Instant.parse("2024-09-01T10:00:00Z"));
+                sink.accept(auditOrderDemo);
+            }
+        }
+        // Then
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COUNT(*), MAX(id), MIN(object_type), MIN(latitude) FROM audit_order_demo")) {
+            assertTrue(resultSet.next());
+            assertEquals(ENTITIES_COUNT, resultSet.getLong(1));
+            assertEquals(ENTITIES_COUNT, resultSet.getLong(2));
+            assertEquals("WELL", resultSet.getString(3));
+            assertEquals(0, new BigDecimal("55.751244").compareTo(resultSet.getBigDecimal(4)));
+            statement.execute("DROP TABLE audit_order_demo");
+        }
+    }
+
+    @Test
+    void do_jdbcSink_columnPrecision() throws SQLException {
+        // Given
+        String url = "jdbc:h2:mem:do_jdbcSink_columnPrecision;DB_CLOSE_DELAY=-1";
+        Point point = new Point();
+        point.setLatitude(new BigDecimal("55.751244"));
+        point.setAltitude(new BigDecimal("144.5"));
+        // When
+        try (EntitySink sink = EntitySink.of(url, null, true)) {
+            sink.accept(point);
+        }
+        // Then
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT latitude, altitude FROM point")) {
+            // Без точности в @Column - DECIMAL(38, 10), иначе - точность и масштаб из аннотации
+            assertEquals(38, resultSet.getMetaData().getPrecision(1));
+            assertEquals(10, resultSet.getMetaData().getScale(1));
+            assertEquals(6, resultSet.getMetaData().getPrecision(2));
+            assertEquals(1, resultSet.getMetaData().getScale(2));
+            assertTrue(resultSet.next());
+            assertEquals(0, new BigDecimal("55.751244").compareTo(resultSet.getBigDecimal(1)));
+            assertEquals(0, new BigDecimal("144.5").compareTo(resultSet.getBigDecimal(2)));
+            statement.execute("DROP TABLE point");
+        }
+    }
+
+    public static class Point {
+        @Column(name = "latitude")
+        private BigDecimal latitude;
+
+        @Column(name = "altitude", precision = 6, scale = 1)
+        private BigDecimal altitude;
+
+        public BigDecimal getLatitude() {
+            return this.latitude;
+        }
+
+        public void setLatitude(BigDecimal latitude) {
+            this.latitude = latitude;
+        }
+
+        public BigDecimal getAltitude() {
+            return this.altitude;
+        }
+
+        public void setAltitude(BigDecimal altitude) {
+            this.altitude = altitude;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package ru.napalabs.bpms;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class PipelinedXlsxReaderTest {
+    // Строк достаточно, чтобы заполнить оба буфера конвейера
+    private static final int ROWS_COUNT = 200_000;
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @Test
+    void do_read_success(@TempDir Path tempDir) throws IOException {
+        // Given
+        File file = createWorkbook(tempDir, ROWS_COUNT, -1, false);
+        int[] rows = {0};
+        // When
+        assertTimeoutPreemptively(TIMEOUT, () -> new PipelinedXlsxReader(file).read((rowNum, values) -> {
+            assertEquals((double) rowNum + 1, values[0]);
+            rows[0]++;
+            return true;
+        }));
+        // Then
+        assertEquals(ROWS_COUNT, rows[0]);
+        assertEquals(0, pipelineThreadsCount());
+    }
+
+    @Test
+    void do_read_stoppedByHandler(@TempDir Path tempDir) throws IOException {
+        // Given
+        File file = createWorkbook(tempDir, ROWS_COUNT, -1, false);
+        // When
+        for (int i = 0; i < 5; i++) {
+            int[] rows = {0};
+            assertTimeoutPreemptively(TIMEOUT, () -> new PipelinedXlsxReader(file).read((rowNum, values) -> ++rows[0] < 3));
+            assertEquals(3, rows[0]);
+        }
+        // Then
+        assertEquals(0, pipelineThreadsCount());
+    }
+
+    @Test
+    void do_read_failed_handlerThrows(@TempDir Path tempDir) throws IOException {
+        // Given
+        File file = createWorkbook(tempDir, ROWS_COUNT, -1, false);
+        // When
+        Exception e = assertTimeoutPreemptively(TIMEOUT, () -> assertThrows(IllegalStateException.class,
+                () -> new PipelinedXlsxReader(file).read((rowNum, values) -> { throw new IllegalStateException("handler"); })));
+        // Then
+        assertEquals("handler", e.getMessage());
+        assertEquals(0, pipelineThreadsCount());
+    }
+
+    @Test
+    void do_read_failed_malformedSheet(@TempDir Path tempDir) throws IOException {
+        // Given
+        File file = createWorkbook(tempDir, ROWS_COUNT, 10, false);
+        // When -> Then
+        assertTimeoutPreemptively(TIMEOUT, () -> assertThrows(IOException.class,
+                () -> new PipelinedXlsxReader(file).read((rowNum, values) -> true)));
+        assertEquals(0, pipelineThreadsCount());
+    }
+
+    @Test
+    void do_read_failed_truncatedSheet(@TempDir Path tempDir) throws IOException {
+        // Given
+        File file = createWorkbook(tempDir, ROWS_COUNT, -1, true);
+        // When -> Then
+        assertTimeoutPreemptively(TIMEOUT, () -> assertThrows(IOException.class,
+                () -> new PipelinedXlsxReader(file).read((rowNum, values) -> true)));
+        assertEquals(0, pipelineThreadsCount());
+    }
+
+    @Test
+    void do_read_failed_malformedValue(@TempDir Path tempDir) throws IOException {
+        // Given
+        // Не число в числовой ячейке и ссылка на отсутствующую общую строку
+        File notNumber = createWorkbook(tempDir.resolve("notNumber.xlsx"), "<row r=\"1\"><c r=\"A1\"><v>abc</v></c></row>");
+        File noSharedString = createWorkbook(tempDir.resolve("noSharedString.xlsx"), "<row r=\"1\"><c r=\"A1\" t=\"s\"><v>5</v></c></row>");
+        File badRowRef = createWorkbook(tempDir.resolve("badRowRef.xlsx"), "<row r=\"x\"><c r=\"A1\"><v>1</v></c></row>");
+        // When -> Then
+        for (File file : new File[]{notNumber, noSharedString, badRowRef}) {
+            assertTimeoutPreemptively(TIMEOUT, () -> assertThrows(IOException.class,
+                    () -> new PipelinedXlsxReader(file).read((rowNum, values) -> true)));
+        }
+        assertEquals(0, pipelineThreadsCount());
+    }
+
+    // Минимальный XLSX из одного листа с числом в колонке A.
+    // brokenRow - номер строки с испорченным закрывающим тегом, truncated - лист обрывается на середине.
+    private static File createWorkbook(Path tempDir, int rowsCount, int brokenRow, boolean truncated) throws IOException {
+        return createWorkbook(tempDir.resolve("sheet.xlsx"), writer -> {
+            int lastRow = truncated ? rowsCount / 2 : rowsCount;
+            for (int rowNum = 1; rowNum <= lastRow; rowNum++) {
+                writer.write("<row r=\"" + rowNum + "\"><c r=\"A" + rowNum + "\"><v>" + rowNum + "</v></c></row" + (rowNum == brokenRow ? "X>" : ">"));
+            }
+            if (!truncated) { writer.write("</sheetData></worksheet>"); }
+        });
+    }
+
+    // Минимальный XLSX из одного листа с заданными строками sheetData
+    private static File createWorkbook(Path path, String sheetData) throws IOException {
+        return createWorkbook(path, writer -> writer.write(sheetData + "</sheetData></worksheet>"));
+    }
+
+    private static File createWorkbook(Path path, SheetWriter sheetWriter) throws IOException {
+        File file = path.toFile();
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(file))) {
+            zip.putNextEntry(new ZipEntry("xl/workbook.xml"));
+            zip.write(("<workbook xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\">"
+                    + "<sheets><sheet name=\"sheet\" sheetId=\"1\" r:id=\"rId1\"/></sheets></workbook>").getBytes(StandardCharsets.UTF_8));
+            zip.putNextEntry(new ZipEntry("xl/_rels/workbook.xml.rels"));
+            zip.write(("<Relationships><Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\""
+                    + " Target=\"worksheets/sheet1.xml\"/></Relationships>").getBytes(StandardCharsets.UTF_8));
+            zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+            Writer writer = new OutputStreamWriter(zip, StandardCharsets.UTF_8);
+            writer.write("<worksheet><sheetData>");
+            sheetWriter.write(writer);
+            writer.flush();
+            zip.closeEntry();
+        }
+        return file;
+    }
+
+    @FunctionalInterface
+    private interface SheetWriter {
+        void write(Writer writer) throws IOException;
+    }
+
+    private static long pipelineThreadsCount() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().startsWith("xlsx-pipeline-") && thread.isAlive())
+                .count();
+    }
+}